@@ -0,0 +1,90 @@
+package org.example.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compara un resultado JMH (-rf json) con una línea base y marca las regresiones.
+ *
+ * Uso: CompararResultados base.json nuevo.json [umbral%]
+ * Una medida es regresión si empeora más que el umbral (10 % por defecto) y más que la suma
+ * de los márgenes de error de las dos ejecuciones. Sale con código 1 si hay alguna.
+ */
+public final class CompararResultados {
+
+    private CompararResultados() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Uso: CompararResultados base.json nuevo.json [umbral%]");
+            System.exit(2);
+        }
+        double umbral = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+        ObjectMapper json = new ObjectMapper();
+        Map<String, JsonNode> base = indexar(json.readTree(new File(args[0])));
+        Map<String, JsonNode> nuevo = indexar(json.readTree(new File(args[1])));
+
+        int regresiones = 0;
+        System.out.printf("%-70s %14s %14s %9s%n", "Benchmark", "Base", "Nuevo", "Cambio");
+        for (Map.Entry<String, JsonNode> entrada : nuevo.entrySet()) {
+            JsonNode anterior = base.get(entrada.getKey());
+            JsonNode actual = entrada.getValue();
+            JsonNode metrica = actual.get("primaryMetric");
+            String unidad = metrica.get("scoreUnit").asText();
+            if (anterior == null) {
+                System.out.printf("%-70s %14s %14.3f %9s  (nuevo) %s%n",
+                        entrada.getKey(), "-", metrica.get("score").asDouble(), "", unidad);
+                continue;
+            }
+            JsonNode metricaBase = anterior.get("primaryMetric");
+            double valorBase = metricaBase.get("score").asDouble();
+            double valor = metrica.get("score").asDouble();
+            double error = error(metricaBase) + error(metrica);
+            // En modo throughput más es mejor; en el resto (tiempo medio...) menos es mejor
+            boolean masEsMejor = "thrpt".equals(actual.get("mode").asText());
+            double empeora = masEsMejor ? valorBase - valor : valor - valorBase;
+            double cambio = valorBase == 0 ? 0 : (valor - valorBase) * 100 / valorBase;
+            boolean regresion = empeora > error && empeora * 100 / valorBase > umbral;
+            if (regresion) {
+                regresiones++;
+            }
+            System.out.printf("%-70s %14.3f %14.3f %+8.1f%%  %s%s%n",
+                    entrada.getKey(), valorBase, valor, cambio, unidad, regresion ? "  ✗ REGRESIÓN" : "");
+        }
+
+        if (regresiones > 0) {
+            System.out.println(regresiones + " regresiones por encima del " + umbral + " %");
+            System.exit(1);
+        }
+        System.out.println("Sin regresiones por encima del " + umbral + " %");
+    }
+
+    private static Map<String, JsonNode> indexar(JsonNode resultados) {
+        Map<String, JsonNode> indice = new LinkedHashMap<>();
+        for (JsonNode resultado : resultados) {
+            StringBuilder clave = new StringBuilder(resultado.get("benchmark").asText()
+                    .replace("org.example.benchmarks.", ""));
+            JsonNode params = resultado.get("params");
+            if (params != null) {
+                Iterator<Map.Entry<String, JsonNode>> it = params.fields();
+                while (it.hasNext()) {
+                    Map.Entry<String, JsonNode> param = it.next();
+                    clave.append(' ').append(param.getKey()).append('=').append(param.getValue().asText());
+                }
+            }
+            indice.put(clave.toString(), resultado);
+        }
+        return indice;
+    }
+
+    private static double error(JsonNode metrica) {
+        double error = metrica.path("scoreError").asDouble(0);
+        return Double.isNaN(error) ? 0 : error;
+    }
+}
@@ -0,0 +1,48 @@
+package org.example.benchmarks;
+
+import org.example.service.SendGridApiService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construcción del cuerpo JSON de las peticiones a Resend: un email y un lote de /emails/batch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CuerpoResendBenchmark {
+
+    @Param({"1", "50", "100"})
+    private int emails;
+
+    private SendGridApiService servicio;
+    private List<SendGridApiService.Email> lote;
+
+    @Setup
+    public void preparar() {
+        servicio = new SendGridApiService();
+        lote = new ArrayList<>(emails);
+        String html = "<div style=\"font-family:Arial,sans-serif\"><h1>💋 KILLER KISS</h1>"
+                + "<p>Hola Jugador,</p><p>Tu víctima es:</p><h2>Víctima</h2><p>¡Suerte! 😘</p></div>";
+        for (int i = 0; i < emails; i++) {
+            lote.add(new SendGridApiService.Email("killer@example.com", "jugador" + i + "@example.com",
+                    "🎯 Killer Kiss - Tu víctima", html));
+        }
+    }
+
+    @Benchmark
+    public byte[] individual() {
+        return servicio.construirCuerpo(lote.get(0));
+    }
+
+    @Benchmark
+    public byte[] lote() {
+        return servicio.construirCuerpo(lote);
+    }
+}
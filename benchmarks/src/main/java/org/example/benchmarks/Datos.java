@@ -0,0 +1,32 @@
+package org.example.benchmarks;
+
+import org.example.KillerKiss;
+import org.example.Persona;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Datos sintéticos compartidos por los benchmarks.
+ */
+final class Datos {
+
+    private Datos() {
+    }
+
+    static List<Persona> personas(int numero) {
+        List<Persona> personas = new ArrayList<>(numero);
+        for (int i = 0; i < numero; i++) {
+            personas.add(new Persona((long) i + 1, "Jugador " + i, "jugador" + i + "@example.com", i % 7));
+        }
+        return personas;
+    }
+
+    static KillerKiss partida(long id, List<Persona> personas) {
+        KillerKiss partida = new KillerKiss("Partida " + id, personas);
+        partida.setId(id);
+        partida.setFechaCreacion(LocalDateTime.of(2025, 1, 1, 12, 0).plusMinutes(id));
+        return partida;
+    }
+}
@@ -0,0 +1,76 @@
+package org.example.benchmarks;
+
+import org.example.repository.EmailCounterRepository;
+import org.example.service.EmailCounter;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reserva y liberación de cuota de EmailCounter con varios hilos a la vez (el camino CAS).
+ * El repositorio es un stub que no hace nada: solo se mide la contención en memoria.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmailCounterBenchmark {
+
+    private EmailCounter contador;
+
+    @Setup
+    public void preparar() throws Exception {
+        EmailCounterRepository repositorio = (EmailCounterRepository) Proxy.newProxyInstance(
+                EmailCounterRepository.class.getClassLoader(),
+                new Class<?>[]{EmailCounterRepository.class},
+                (proxy, metodo, args) -> {
+                    if (metodo.getReturnType() == Optional.class) {
+                        return Optional.empty();
+                    }
+                    if (metodo.getReturnType() == int.class) {
+                        return 1;
+                    }
+                    return null;
+                });
+        contador = new EmailCounter();
+        asignar("repository", repositorio);
+        asignar("bloqueReserva", 10);
+    }
+
+    private void asignar(String campo, Object valor) throws Exception {
+        Field field = EmailCounter.class.getDeclaredField(campo);
+        field.setAccessible(true);
+        field.set(contador, valor);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean reservarYLiberar_1hilo() {
+        return reservarYLiberar();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean reservarYLiberar_4hilos() {
+        return reservarYLiberar();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public boolean reservarYLiberar_16hilos() {
+        return reservarYLiberar();
+    }
+
+    private boolean reservarYLiberar() {
+        boolean reservado = contador.reservar(1);
+        if (reservado) {
+            contador.liberar(1);
+        }
+        return reservado;
+    }
+}
@@ -0,0 +1,161 @@
+package org.example.benchmarks;
+
+import org.example.KillerKiss;
+import org.example.Persona;
+import org.h2.jdbcx.JdbcDataSource;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.*;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.UnaryOperator;
+
+/**
+ * Inserciones con Hibernate sobre H2 en memoria (modo PostgreSQL), con las entidades reales:
+ * 10.000 personas en una transacción y una partida de 1.000 jugadores.
+ *
+ * lote es hibernate.jdbc.batch_size (1 = sin lotes). Con IDENTITY Hibernate no agrupa los
+ * INSERT de la entidad aunque haya lote; con las secuencias pooled sí. latenciaUs simula el
+ * viaje de red de cada ejecución JDBC (sentencia o lote completo), que es lo que ahorran los
+ * lotes frente a la base de datos remota; con H2 en memoria y latencia 0 apenas se nota.
+ * Los números de antes y después de pasar a secuencias están en el README del módulo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InsercionBenchmark {
+
+    private static final int PERSONAS = 10_000;
+    private static final int JUGADORES = 1_000;
+
+    @Param({"1", "50"})
+    public int lote;
+
+    @Param({"0", "500"})
+    public int latenciaUs;
+
+    private SessionFactory sessionFactory;
+    private final List<Long> jugadores = new ArrayList<>(JUGADORES);
+    private long contador;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:insercion" + System.nanoTime() + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        h2.setUser("sa");
+        Configuration configuracion = new Configuration()
+                .addAnnotatedClass(Persona.class)
+                .addAnnotatedClass(KillerKiss.class);
+        configuracion.getProperties().put("hibernate.connection.datasource", conLatencia(h2, latenciaUs * 1000L));
+        sessionFactory = configuracion
+                .setProperty("hibernate.hbm2ddl.auto", "create")
+                .setProperty("hibernate.jdbc.batch_size", Integer.toString(lote))
+                .setProperty("hibernate.order_inserts", "true")
+                .setProperty("hibernate.order_updates", "true")
+                .setProperty("jakarta.persistence.validation.mode", "none")
+                .setProperty("hibernate.show_sql", "false")
+                .buildSessionFactory();
+
+        sessionFactory.inTransaction(sesion -> {
+            for (int i = 0; i < JUGADORES; i++) {
+                Persona persona = new Persona("Jugador " + i, "jugador" + i + "@carga.test");
+                sesion.persist(persona);
+                jugadores.add(persona.getId());
+            }
+        });
+    }
+
+    /**
+     * Vacía lo insertado en cada iteración para que las tablas no crezcan sin límite.
+     */
+    @TearDown(Level.Iteration)
+    public void vaciar() {
+        sessionFactory.inTransaction(sesion -> {
+            sesion.createNativeMutationQuery("DELETE FROM partida_participantes").executeUpdate();
+            sesion.createNativeMutationQuery("DELETE FROM partidas").executeUpdate();
+            sesion.createNativeMutationQuery("DELETE FROM personas WHERE mail LIKE 'nueva%'").executeUpdate();
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public long insertar10000Personas() {
+        long inicio = contador;
+        sessionFactory.inTransaction(sesion -> {
+            for (int i = 0; i < PERSONAS; i++) {
+                long n = contador++;
+                sesion.persist(new Persona("Nueva " + n, "nueva" + n + "@carga.test"));
+            }
+        });
+        return contador - inicio;
+    }
+
+    @Benchmark
+    public Long crearPartida1000Jugadores() {
+        long n = contador++;
+        KillerKiss partida = sessionFactory.fromTransaction(sesion -> {
+            List<Persona> personas = new ArrayList<>(JUGADORES);
+            for (Long id : jugadores) {
+                personas.add(sesion.getReference(Persona.class, id));
+            }
+            KillerKiss nueva = new KillerKiss("Partida " + n, personas);
+            nueva.iniciarPartida();
+            sesion.persist(nueva);
+            return nueva;
+        });
+        return partida.getId();
+    }
+
+    /**
+     * DataSource que espera latenciaNanos en cada execute/executeQuery/executeUpdate/executeBatch.
+     */
+    private static DataSource conLatencia(DataSource destino, long latenciaNanos) {
+        return (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(), new Class<?>[]{DataSource.class},
+                delegar(destino, resultado -> resultado instanceof Connection conexion
+                        ? Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                                delegar(conexion, sentencia -> sentencia instanceof Statement
+                                        ? envolverSentencia((Statement) sentencia, latenciaNanos)
+                                        : sentencia))
+                        : resultado));
+    }
+
+    private static Object envolverSentencia(Statement sentencia, long latenciaNanos) {
+        Class<?> tipo = sentencia instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+        return Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[]{tipo}, (proxy, metodo, args) -> {
+            if (latenciaNanos > 0 && metodo.getName().startsWith("execute")) {
+                LockSupport.parkNanos(latenciaNanos);
+            }
+            return invocar(sentencia, metodo, args);
+        });
+    }
+
+    private static InvocationHandler delegar(Object destino, UnaryOperator<Object> envolver) {
+        return (proxy, metodo, args) -> envolver.apply(invocar(destino, metodo, args));
+    }
+
+    private static Object invocar(Object destino, Method metodo, Object[] args) throws Throwable {
+        try {
+            return metodo.invoke(destino, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
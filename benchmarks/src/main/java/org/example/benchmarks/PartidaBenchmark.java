@@ -0,0 +1,41 @@
+package org.example.benchmarks;
+
+import org.example.KillerKiss;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Operaciones de una partida que dependen del número de jugadores:
+ * barajar el anillo (sortPersonas) y derivar las asignaciones cazador → víctima.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PartidaBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int jugadores;
+
+    private KillerKiss partida;
+
+    @Setup
+    public void preparar() {
+        partida = Datos.partida(1, Datos.personas(jugadores));
+    }
+
+    @Benchmark
+    public KillerKiss sortPersonas() {
+        partida.sortPersonas();
+        return partida;
+    }
+
+    @Benchmark
+    public Map<String, String> asignaciones() {
+        return partida.getAsignaciones();
+    }
+}
@@ -0,0 +1,58 @@
+package org.example.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.KillerKiss;
+import org.example.Persona;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialización JSON de las respuestas de la API: lista de personas y lista de partidas completas
+ * (con participantes y asignaciones). ObjectMapper configurado como el de Spring Boot.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializacionBenchmark {
+
+    /** Jugadores por partida en la lista de partidas. */
+    private static final int JUGADORES_POR_PARTIDA = 20;
+
+    @Param({"10", "1000", "100000"})
+    private int elementos;
+
+    private ObjectMapper objectMapper;
+    private List<Persona> personas;
+    private List<KillerKiss> partidas;
+
+    @Setup
+    public void preparar() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        personas = Datos.personas(elementos);
+        // Mismo volumen total de jugadores: elementos / 20 partidas (al menos una)
+        int numPartidas = Math.max(1, elementos / JUGADORES_POR_PARTIDA);
+        partidas = new ArrayList<>(numPartidas);
+        for (int i = 0; i < numPartidas; i++) {
+            int desde = i * JUGADORES_POR_PARTIDA;
+            int hasta = Math.min(personas.size(), desde + JUGADORES_POR_PARTIDA);
+            partidas.add(Datos.partida(i + 1, personas.subList(desde, hasta)));
+        }
+    }
+
+    @Benchmark
+    public byte[] personas() throws Exception {
+        return objectMapper.writeValueAsBytes(personas);
+    }
+
+    @Benchmark
+    public byte[] partidas() throws Exception {
+        return objectMapper.writeValueAsBytes(partidas);
+    }
+}
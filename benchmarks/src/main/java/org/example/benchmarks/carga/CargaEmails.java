@@ -0,0 +1,138 @@
+package org.example.benchmarks.carga;
+
+import org.example.service.SendGridApiService;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Throughput y latencia de SendGridApiService contra ResendSimulado, sin Spring ni base de datos.
+ *
+ * Envía --emails emails en bloques de --bloque (lo que entrega el outbox en cada ronda: workers
+ * × email.outbox.lote), esperando a que acabe cada bloque antes del siguiente. La latencia de
+ * un email va desde que se entrega su bloque hasta que Resend contesta. Modo "lote" usa
+ * enviarLote (/emails/batch); modo "individual", una petición por email.
+ *
+ * Uso:
+ *   java -cp benchmarks/target/benchmarks.jar org.example.benchmarks.carga.CargaEmails \
+ *        --emails=20000 --bloque=100 --modo=lote --lote=50 --concurrencia=4 \
+ *        --latencia-ms=80 --errores=0.02
+ */
+public final class CargaEmails {
+
+    private static final String HTML = "<div style=\"font-family:Arial,sans-serif\"><h1>💋 KILLER KISS</h1>"
+            + "<p>Hola Jugador,</p><p>Tu víctima es:</p><h2>Víctima</h2><p>¡Suerte! 😘</p></div>";
+
+    private CargaEmails() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opciones = ResendSimulado.opciones(args);
+        int emails = Integer.parseInt(opciones.getOrDefault("emails", "20000"));
+        int bloque = Integer.parseInt(opciones.getOrDefault("bloque", "100"));
+        String modo = opciones.getOrDefault("modo", "lote");
+        int lote = Integer.parseInt(opciones.getOrDefault("lote", "50"));
+        int concurrencia = Integer.parseInt(opciones.getOrDefault("concurrencia", "4"));
+        long latenciaMs = Long.parseLong(opciones.getOrDefault("latencia-ms", "80"));
+        double errores = Double.parseDouble(opciones.getOrDefault("errores", "0"));
+        if (!modo.equals("lote") && !modo.equals("individual")) {
+            System.err.println("Modo no válido: " + modo + " (lote o individual)");
+            System.exit(2);
+        }
+
+        ResendSimulado resend = new ResendSimulado(0, latenciaMs, errores);
+        resend.iniciar();
+        try {
+            SendGridApiService servicio = new SendGridApiService();
+            asignar(servicio, "apiKey", "re_simulado");
+            asignar(servicio, "apiUrl", resend.url());
+            asignar(servicio, "maxConcurrencia", concurrencia);
+            asignar(servicio, "tamanoLote", lote);
+
+            System.out.printf("%d emails a %s en bloques de %d, modo %s (lote %d), %d peticiones a la vez, "
+                            + "latencia de Resend %d ms, errores %.1f %%%n",
+                    emails, resend.url(), bloque, modo, lote, concurrencia, latenciaMs, errores * 100);
+
+            // Calentamiento: JIT y conexiones del HttpClient
+            enviar(servicio, modo, Math.min(emails, bloque * 5), bloque, new long[emails], new TreeMap<>());
+            long peticionesCalentamiento = resend.getPeticiones();
+
+            long[] latencias = new long[emails];
+            Map<String, Integer> fallos = new TreeMap<>();
+            long inicio = System.nanoTime();
+            enviar(servicio, modo, emails, bloque, latencias, fallos);
+            double segundos = (System.nanoTime() - inicio) / 1e9;
+
+            Arrays.sort(latencias);
+            int fallidos = fallos.values().stream().mapToInt(Integer::intValue).sum();
+            System.out.printf("%n%10s %10s %10s %9s %9s %9s %9s %11s%n",
+                    "Emails", "Fallidos", "Emails/s", "p50 ms", "p90 ms", "p99 ms", "máx ms", "Peticiones");
+            System.out.printf("%10d %10d %10.1f %9.1f %9.1f %9.1f %9.1f %11d%n",
+                    emails, fallidos, emails / segundos,
+                    percentil(latencias, 50), percentil(latencias, 90), percentil(latencias, 99),
+                    latencias[latencias.length - 1] / 1e6, resend.getPeticiones() - peticionesCalentamiento);
+            fallos.forEach((error, veces) -> System.out.printf("  %6d × %s%n", veces, error));
+        } finally {
+            resend.detener();
+        }
+    }
+
+    /**
+     * Envía los emails por bloques y anota la latencia de cada uno y los motivos de fallo.
+     */
+    private static void enviar(SendGridApiService servicio, String modo, int emails, int bloque,
+                               long[] latencias, Map<String, Integer> fallos) {
+        for (int desde = 0; desde < emails; desde += bloque) {
+            int hasta = Math.min(desde + bloque, emails);
+            List<SendGridApiService.Email> lista = new ArrayList<>(hasta - desde);
+            for (int i = desde; i < hasta; i++) {
+                lista.add(new SendGridApiService.Email("killer@example.com", "jugador" + i + "@example.com",
+                        "🎯 Killer Kiss - Tu víctima", HTML));
+            }
+
+            long entregado = System.nanoTime();
+            List<CompletableFuture<String>> errores = new ArrayList<>(lista.size());
+            if (modo.equals("lote")) {
+                List<CompletableFuture<SendGridApiService.Resultado>> resultados = servicio.enviarLote(lista);
+                for (int i = 0; i < resultados.size(); i++) {
+                    int indice = desde + i;
+                    errores.add(resultados.get(i).thenApply(resultado -> {
+                        latencias[indice] = System.nanoTime() - entregado;
+                        return resultado.getError();
+                    }));
+                }
+            } else {
+                for (int i = 0; i < lista.size(); i++) {
+                    int indice = desde + i;
+                    errores.add(servicio.enviar(lista.get(i)).thenApply(ok -> {
+                        latencias[indice] = System.nanoTime() - entregado;
+                        return ok ? null : "Rechazado";
+                    }));
+                }
+            }
+            CompletableFuture.allOf(errores.toArray(new CompletableFuture<?>[0])).join();
+            for (CompletableFuture<String> error : errores) {
+                String motivo = error.join();
+                if (motivo != null) {
+                    fallos.merge(motivo, 1, Integer::sum);
+                }
+            }
+        }
+    }
+
+    private static double percentil(long[] ordenadas, double p) {
+        int indice = (int) Math.ceil(p / 100.0 * ordenadas.length) - 1;
+        return ordenadas[Math.max(0, indice)] / 1e6;
+    }
+
+    private static void asignar(SendGridApiService servicio, String campo, Object valor) throws Exception {
+        Field field = SendGridApiService.class.getDeclaredField(campo);
+        field.setAccessible(true);
+        field.set(servicio, valor);
+    }
+}
@@ -0,0 +1,278 @@
+package org.example.benchmarks.carga;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Cliente de carga HTTP contra la API REST (normalmente con el perfil "loadtest" y sus datos
+ * sintéticos). Lanza N hilos que piden endpoints al azar según unos pesos durante un tiempo
+ * y al final muestra, por endpoint, peticiones, errores, throughput y latencias p50/p90/p99/máx.
+ *
+ * Uso:
+ *   java -cp benchmarks/target/benchmarks.jar org.example.benchmarks.carga.ClienteCarga \
+ *        --url=http://localhost:8080 --hilos=16 --duracion=60 --calentamiento=10 \
+ *        --personas=1000000 --partidas=100000 --pesos=dashboard:1,crearPersona:2
+ *
+ * Los pesos por defecto están en PESOS; --pesos solo cambia los indicados (0 desactiva uno).
+ * /api/dashboard y /api/personas devuelven todas las personas y están a 0 por defecto.
+ * crearPartida (12 jugadores al azar) también: con email.outbox.enabled cada partida encola
+ * un email por jugador, y sirve para mezclar el envío de emails con el resto de la carga.
+ */
+public final class ClienteCarga {
+
+    private static final Pattern HASTA = Pattern.compile("\"hasta\":(\\d+)");
+
+    /** Jugadores de cada partida creada (el tamaño medio de loadtest.jugadores-medio). */
+    private static final int JUGADORES_PARTIDA = 12;
+
+    /** Endpoint → peso por defecto. */
+    private static final Map<String, Integer> PESOS = new LinkedHashMap<>();
+
+    static {
+        PESOS.put("ranking", 20);
+        PESOS.put("estadisticas", 15);
+        PESOS.put("finalizadas", 15);
+        PESOS.put("partida", 15);
+        PESOS.put("activas", 10);
+        PESOS.put("persona", 10);
+        PESOS.put("personasPagina", 10);
+        PESOS.put("cambios", 5);
+        PESOS.put("crearPersona", 1);
+        PESOS.put("crearPartida", 0);
+        PESOS.put("dashboard", 0);
+        PESOS.put("personas", 0);
+    }
+
+    private final String url;
+    private final int personas;
+    private final int partidas;
+    private final HttpClient http;
+    private final AtomicLong versionCambios = new AtomicLong();
+    private final AtomicLong secuenciaAltas = new AtomicLong();
+    private final Map<String, Function<ThreadLocalRandom, HttpRequest>> endpoints = new LinkedHashMap<>();
+
+    private ClienteCarga(String url, int personas, int partidas) {
+        this.url = url;
+        this.personas = personas;
+        this.partidas = partidas;
+        this.http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+        endpoints.put("ranking", r -> get("/api/personas/ranking?limite=10"));
+        endpoints.put("estadisticas", r -> get("/api/partidas/estadisticas"));
+        endpoints.put("finalizadas", r -> get("/api/partidas/pagina?estado=finalizadas&orden=fechaCreacion&limite=50"));
+        endpoints.put("partida", r -> get("/api/partidas/" + (1 + r.nextInt(partidas))));
+        endpoints.put("activas", r -> get("/api/partidas/activas"));
+        endpoints.put("persona", r -> get("/api/personas/" + (1 + r.nextInt(personas))));
+        endpoints.put("personasPagina", r -> get("/api/personas/pagina?orden=victories&limite=50"));
+        endpoints.put("cambios", r -> get("/api/changes?since=" + versionCambios.get()));
+        endpoints.put("crearPersona", r -> {
+            String nombre = "Carga " + System.nanoTime() + "-" + secuenciaAltas.incrementAndGet();
+            String cuerpo = "{\"nom\":\"" + nombre + "\",\"mail\":\"" + nombre.replace(' ', '.') + "@carga.local\"}";
+            return HttpRequest.newBuilder(URI.create(url + "/api/personas"))
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(cuerpo))
+                    .build();
+        });
+        endpoints.put("crearPartida", r -> {
+            StringBuilder jugadores = new StringBuilder();
+            r.ints(1, personas + 1).distinct().limit(JUGADORES_PARTIDA).forEach(id ->
+                    jugadores.append(jugadores.length() > 0 ? "," : "").append("{\"id\":").append(id).append('}'));
+            String cuerpo = "{\"nom\":\"Carga " + System.nanoTime() + "\",\"personas\":[" + jugadores + "]}";
+            return HttpRequest.newBuilder(URI.create(url + "/api/partidas"))
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(cuerpo))
+                    .build();
+        });
+        endpoints.put("dashboard", r -> get("/api/dashboard"));
+        endpoints.put("personas", r -> get("/api/personas"));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opciones = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                System.err.println("Argumento no válido: " + arg + " (se espera --nombre=valor)");
+                System.exit(2);
+            }
+            opciones.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        String url = opciones.getOrDefault("url", "http://localhost:8080");
+        int hilos = Integer.parseInt(opciones.getOrDefault("hilos", "16"));
+        int duracion = Integer.parseInt(opciones.getOrDefault("duracion", "60"));
+        int calentamiento = Integer.parseInt(opciones.getOrDefault("calentamiento", "10"));
+        int personas = Integer.parseInt(opciones.getOrDefault("personas", "1000000"));
+        int partidas = Integer.parseInt(opciones.getOrDefault("partidas", "100000"));
+
+        Map<String, Integer> pesos = new LinkedHashMap<>(PESOS);
+        if (opciones.containsKey("pesos")) {
+            for (String par : opciones.get("pesos").split(",")) {
+                String[] partes = par.split(":");
+                if (partes.length != 2 || !pesos.containsKey(partes[0])) {
+                    System.err.println("Peso no válido: " + par + " (endpoints: " + pesos.keySet() + ")");
+                    System.exit(2);
+                }
+                pesos.put(partes[0], Integer.parseInt(partes[1]));
+            }
+        }
+
+        ClienteCarga cliente = new ClienteCarga(url, personas, partidas);
+        System.out.printf("Carga contra %s: %d hilos, %d s (+%d s de calentamiento), pesos %s%n",
+                url, hilos, duracion, calentamiento, pesos);
+        cliente.ejecutar(pesos, hilos, calentamiento, duracion);
+    }
+
+    private void ejecutar(Map<String, Integer> pesos, int hilos, int calentamiento, int duracion) throws InterruptedException {
+        List<String> nombres = new ArrayList<>();
+        List<Integer> acumulados = new ArrayList<>();
+        int total = 0;
+        for (Map.Entry<String, Integer> peso : pesos.entrySet()) {
+            if (peso.getValue() > 0) {
+                total += peso.getValue();
+                nombres.add(peso.getKey());
+                acumulados.add(total);
+            }
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("Todos los pesos son 0");
+        }
+        int sumaPesos = total;
+
+        long inicioMedida = System.nanoTime() + calentamiento * 1_000_000_000L;
+        long fin = inicioMedida + duracion * 1_000_000_000L;
+        List<Map<String, Medidas>> porHilo = new ArrayList<>();
+        CountDownLatch terminados = new CountDownLatch(hilos);
+        for (int h = 0; h < hilos; h++) {
+            Map<String, Medidas> medidas = new HashMap<>();
+            porHilo.add(medidas);
+            Thread hilo = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    while (System.nanoTime() < fin) {
+                        int tirada = random.nextInt(sumaPesos);
+                        int i = 0;
+                        while (acumulados.get(i) <= tirada) {
+                            i++;
+                        }
+                        String nombre = nombres.get(i);
+                        long inicio = System.nanoTime();
+                        boolean ok = peticion(nombre, random);
+                        if (inicio >= inicioMedida) {
+                            medidas.computeIfAbsent(nombre, n -> new Medidas()).anotar(System.nanoTime() - inicio, ok);
+                        }
+                    }
+                } finally {
+                    terminados.countDown();
+                }
+            }, "carga-" + h);
+            hilo.start();
+        }
+        terminados.await();
+        informe(nombres, porHilo, duracion);
+    }
+
+    private boolean peticion(String nombre, ThreadLocalRandom random) {
+        try {
+            HttpResponse<String> respuesta = http.send(endpoints.get(nombre).apply(random), HttpResponse.BodyHandlers.ofString());
+            if ("cambios".equals(nombre) && respuesta.statusCode() == 200) {
+                Matcher hasta = HASTA.matcher(respuesta.body());
+                if (hasta.find()) {
+                    versionCambios.accumulateAndGet(Long.parseLong(hasta.group(1)), Math::max);
+                }
+            }
+            // 404 de un id al azar ya borrado y 410 de cambios antiguos son respuestas válidas
+            int estado = respuesta.statusCode();
+            return estado < 400 || estado == 404 || estado == 410;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private void informe(List<String> nombres, List<Map<String, Medidas>> porHilo, int duracion) {
+        System.out.printf("%n%-16s %10s %8s %10s %9s %9s %9s %9s%n",
+                "Endpoint", "Peticiones", "Errores", "Req/s", "p50 ms", "p90 ms", "p99 ms", "máx ms");
+        Medidas global = new Medidas();
+        for (String nombre : nombres) {
+            Medidas total = new Medidas();
+            for (Map<String, Medidas> medidas : porHilo) {
+                Medidas m = medidas.get(nombre);
+                if (m != null) {
+                    total.sumar(m);
+                }
+            }
+            global.sumar(total);
+            fila(nombre, total, duracion);
+        }
+        System.out.println("-".repeat(88));
+        fila("TOTAL", global, duracion);
+    }
+
+    private static void fila(String nombre, Medidas m, int duracion) {
+        long[] orden = m.ordenadas();
+        System.out.printf("%-16s %10d %8d %10.1f %9.2f %9.2f %9.2f %9.2f%n",
+                nombre, orden.length, m.errores, orden.length / (double) duracion,
+                percentil(orden, 50), percentil(orden, 90), percentil(orden, 99),
+                orden.length == 0 ? 0 : orden[orden.length - 1] / 1e6);
+    }
+
+    private static double percentil(long[] ordenadas, double p) {
+        if (ordenadas.length == 0) {
+            return 0;
+        }
+        int indice = (int) Math.ceil(p / 100.0 * ordenadas.length) - 1;
+        return ordenadas[Math.max(0, indice)] / 1e6;
+    }
+
+    private HttpRequest get(String ruta) {
+        return HttpRequest.newBuilder(URI.create(url + ruta)).timeout(Duration.ofSeconds(30)).GET().build();
+    }
+
+    /**
+     * Latencias (ns) y errores de un endpoint en un hilo. Solo la usa su hilo hasta el informe.
+     */
+    private static final class Medidas {
+
+        private long[] latencias = new long[1024];
+        private int numero;
+        private long errores;
+
+        private void anotar(long nanos, boolean ok) {
+            if (numero == latencias.length) {
+                latencias = Arrays.copyOf(latencias, numero * 2);
+            }
+            latencias[numero++] = nanos;
+            if (!ok) {
+                errores++;
+            }
+        }
+
+        private void sumar(Medidas otra) {
+            for (int i = 0; i < otra.numero; i++) {
+                anotar(otra.latencias[i], true);
+            }
+            errores += otra.errores;
+        }
+
+        private long[] ordenadas() {
+            long[] copia = Arrays.copyOf(latencias, numero);
+            Arrays.sort(copia);
+            return copia;
+        }
+    }
+}
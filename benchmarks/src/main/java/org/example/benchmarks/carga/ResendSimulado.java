@@ -0,0 +1,175 @@
+package org.example.benchmarks.carga;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Resend simulado para probar el envío de emails sin red ni cuota: POST /emails y /emails/batch
+ * responden tras una latencia fija y una fracción de las peticiones recibe 422 con un cuerpo
+ * como el de Resend. Cuenta peticiones, emails y rechazos.
+ *
+ * Suelto, para apuntar la aplicación a él (resend.api.url=http://localhost:8025 y cualquier
+ * resend.api.key):
+ *   java -cp benchmarks/target/benchmarks.jar org.example.benchmarks.carga.ResendSimulado \
+ *        --puerto=8025 --latencia-ms=80 --errores=0.02
+ */
+public final class ResendSimulado {
+
+    private static final byte[] TO = "\"to\":".getBytes(StandardCharsets.UTF_8);
+
+    private final HttpServer servidor;
+    private final ExecutorService hilos = Executors.newCachedThreadPool(r -> {
+        Thread hilo = new Thread(r, "resend-simulado");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+    private final long latenciaMs;
+    private final double errores;
+
+    private final AtomicLong peticiones = new AtomicLong();
+    private final AtomicLong emails = new AtomicLong();
+    private final AtomicLong rechazadas = new AtomicLong();
+
+    /**
+     * @param puerto     0 para uno libre
+     * @param latenciaMs espera antes de cada respuesta
+     * @param errores    fracción de peticiones (0 a 1) que reciben 422
+     */
+    public ResendSimulado(int puerto, long latenciaMs, double errores) throws IOException {
+        this.latenciaMs = latenciaMs;
+        this.errores = errores;
+        this.servidor = HttpServer.create(new InetSocketAddress("127.0.0.1", puerto), 0);
+        // El contexto /emails también atiende /emails/batch
+        this.servidor.createContext("/emails", this::atender);
+        this.servidor.setExecutor(hilos);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opciones = opciones(args);
+        ResendSimulado resend = new ResendSimulado(
+                Integer.parseInt(opciones.getOrDefault("puerto", "8025")),
+                Long.parseLong(opciones.getOrDefault("latencia-ms", "80")),
+                Double.parseDouble(opciones.getOrDefault("errores", "0")));
+        resend.iniciar();
+        System.out.printf("Resend simulado en %s (latencia %s ms, errores %s)%n", resend.url(),
+                resend.latenciaMs, resend.errores);
+        while (true) {
+            Thread.sleep(10_000);
+            System.out.printf("%d peticiones, %d emails, %d rechazadas%n",
+                    resend.getPeticiones(), resend.getEmails(), resend.getRechazadas());
+        }
+    }
+
+    public void iniciar() {
+        servidor.start();
+    }
+
+    public void detener() {
+        servidor.stop(0);
+        hilos.shutdownNow();
+    }
+
+    public String url() {
+        return "http://127.0.0.1:" + servidor.getAddress().getPort();
+    }
+
+    public long getPeticiones() {
+        return peticiones.get();
+    }
+
+    public long getEmails() {
+        return emails.get();
+    }
+
+    public long getRechazadas() {
+        return rechazadas.get();
+    }
+
+    private void atender(HttpExchange intercambio) throws IOException {
+        try (intercambio) {
+            byte[] cuerpo;
+            try (InputStream entrada = intercambio.getRequestBody()) {
+                cuerpo = entrada.readAllBytes();
+            }
+            peticiones.incrementAndGet();
+            int destinatarios = contar(cuerpo, TO);
+            emails.addAndGet(destinatarios);
+
+            if (latenciaMs > 0) {
+                try {
+                    Thread.sleep(latenciaMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+
+            String autorizacion = intercambio.getRequestHeaders().getFirst("Authorization");
+            if (!"POST".equals(intercambio.getRequestMethod()) || autorizacion == null || !autorizacion.startsWith("Bearer ")) {
+                responder(intercambio, 401, "{\"statusCode\":401,\"name\":\"missing_api_key\",\"message\":\"Missing API key\"}");
+                rechazadas.incrementAndGet();
+            } else if (errores > 0 && ThreadLocalRandom.current().nextDouble() < errores) {
+                responder(intercambio, 422, "{\"statusCode\":422,\"name\":\"validation_error\","
+                        + "\"message\":\"Simulado: el remitente no está verificado\"}");
+                rechazadas.incrementAndGet();
+            } else if (intercambio.getRequestURI().getPath().endsWith("/batch")) {
+                StringBuilder ids = new StringBuilder("{\"data\":[");
+                for (int i = 0; i < destinatarios; i++) {
+                    ids.append(i > 0 ? "," : "").append("{\"id\":\"").append(UUID.randomUUID()).append("\"}");
+                }
+                responder(intercambio, 200, ids.append("]}").toString());
+            } else {
+                responder(intercambio, 200, "{\"id\":\"" + UUID.randomUUID() + "\"}");
+            }
+        }
+    }
+
+    private static void responder(HttpExchange intercambio, int estado, String json) throws IOException {
+        byte[] cuerpo = json.getBytes(StandardCharsets.UTF_8);
+        intercambio.getResponseHeaders().set("Content-Type", "application/json");
+        intercambio.sendResponseHeaders(estado, cuerpo.length);
+        try (OutputStream salida = intercambio.getResponseBody()) {
+            salida.write(cuerpo);
+        }
+    }
+
+    /** Apariciones de patron en datos (un "to" por email en el JSON de SendGridApiService). */
+    private static int contar(byte[] datos, byte[] patron) {
+        int n = 0;
+        buscar:
+        for (int i = 0; i <= datos.length - patron.length; i++) {
+            for (int j = 0; j < patron.length; j++) {
+                if (datos[i + j] != patron[j]) {
+                    continue buscar;
+                }
+            }
+            n++;
+        }
+        return n;
+    }
+
+    static Map<String, String> opciones(String[] args) {
+        Map<String, String> opciones = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                System.err.println("Argumento no válido: " + arg + " (se espera --nombre=valor)");
+                System.exit(2);
+            }
+            opciones.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        return opciones;
+    }
+}
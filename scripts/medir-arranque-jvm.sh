@@ -0,0 +1,124 @@
+#!/usr/bin/env bash
+# ===================================================
+# Arranque del jar normal frente a AOT + AppCDS, sin Docker ni base de datos
+# ===================================================
+# Uso: scripts/medir-arranque-jvm.sh [repeticiones]
+#
+# Para máquinas sin Docker: reproduce fuera de contenedores lo que cambia Dockerfile.fast
+# (Spring AOT, clases en capas y archivo AppCDS entrenado) y arranca las dos variantes con el
+# perfil loadtest (H2 en memoria, sin datos sintéticos). No incluye el JRE recortado con jlink
+# ni el tiempo de arrancar el contenedor; para eso, scripts/medir-arranque.sh.
+#
+# Mide lo mismo que medir-arranque.sh (arranque hasta /api/config, "Started Main" y la primera
+# petición a /api/dashboard) y escribe el informe en arranque-informe.md.
+# ===================================================
+set -euo pipefail
+
+REPETICIONES="${1:-5}"
+PUERTO=18080
+INFORME=arranque-informe.md
+TRABAJO=$(mktemp -d)
+trap 'rm -rf "$TRABAJO"' EXIT
+
+cd "$(dirname "$0")/.."
+
+# Mismos argumentos en las dos variantes: perfil loadtest sin datos generados
+ARGUMENTOS=(-Dspring.profiles.active=loadtest -Dloadtest.personas=0 -Dloadtest.partidas=0 -Dserver.port=$PUERTO)
+
+echo "Compilando jar normal..."
+mvn -B -q -Ploadtest clean package -DskipTests
+cp target/KillerKiss-1.0-SNAPSHOT.jar "$TRABAJO/normal.jar"
+
+echo "Compilando con AOT y extrayendo capas (como Dockerfile.fast)..."
+mvn -B -q -Paot,loadtest clean package -DskipTests
+mkdir -p "$TRABAJO/capas" "$TRABAJO/fast/lib"
+(cd "$TRABAJO/capas" && java -Djarmode=layertools -jar "$OLDPWD/target/KillerKiss-1.0-SNAPSHOT.jar" extract)
+cp "$TRABAJO"/capas/dependencies/BOOT-INF/lib/*.jar "$TRABAJO/fast/lib/"
+cp "$TRABAJO"/capas/snapshot-dependencies/BOOT-INF/lib/*.jar "$TRABAJO/fast/lib/" 2>/dev/null || true
+jar cf "$TRABAJO/fast/app.jar" -C "$TRABAJO/capas/application/BOOT-INF/classes" .
+CLASSPATH_FAST="$(ls "$TRABAJO"/fast/lib/*.jar | sort | tr '\n' ':')$TRABAJO/fast/app.jar"
+
+echo "Arranque de entrenamiento de AppCDS..."
+java -XX:ArchiveClassesAtExit="$TRABAJO/fast/app.jsa" -Xlog:cds=off -cp "$CLASSPATH_FAST" \
+    -Dspring.aot.enabled=true -Dspring.context.exit=onRefresh "${ARGUMENTOS[@]}" org.example.Main >/dev/null
+test -f "$TRABAJO/fast/app.jsa"
+
+# Deja target/ como un build normal
+mvn -B -q clean compile
+
+ms() {
+    echo $(( $(date +%s%N) / 1000000 ))
+}
+
+mediana() {
+    sort -n | awk '{ v[NR] = $1 } END { if (NR % 2) print v[(NR + 1) / 2]; else print (v[NR / 2] + v[NR / 2 + 1]) / 2 }'
+}
+
+medir() {
+    local nombre="$1"
+    local salida="$2"
+    shift 2
+    : > "$salida"
+    for i in $(seq 1 "$REPETICIONES"); do
+        local inicio pid listo spring primera
+        inicio=$(ms)
+        "$@" > "$TRABAJO/log" 2>&1 &
+        pid=$!
+        until curl -sf -o /dev/null "http://localhost:$PUERTO/api/config"; do
+            if (( $(ms) - inicio > 180000 )) || ! kill -0 "$pid" 2>/dev/null; then
+                echo "✗ $nombre no ha arrancado:" >&2
+                tail -20 "$TRABAJO/log" >&2
+                kill "$pid" 2>/dev/null || true
+                exit 1
+            fi
+            sleep 0.05
+        done
+        listo=$(( $(ms) - inicio ))
+        primera=$(curl -s -o /dev/null -w '%{time_total}' "http://localhost:$PUERTO/api/dashboard" \
+            | awk '{ printf "%d", $1 * 1000 }')
+        spring=$(sed -n 's/.*Started Main in \([0-9.]*\) seconds.*/\1/p' "$TRABAJO/log" \
+            | awk '{ printf "%d", $1 * 1000 }')
+        kill "$pid"
+        wait "$pid" 2>/dev/null || true
+        echo "$listo ${spring:-0} $primera" >> "$salida"
+        echo "  $nombre #$i: arranque ${listo} ms, spring ${spring:-?} ms, 1ª petición ${primera} ms"
+    done
+}
+
+echo "Jar normal:"
+medir normal "$TRABAJO/normal.txt" java "${ARGUMENTOS[@]}" -jar "$TRABAJO/normal.jar"
+echo "AOT + AppCDS:"
+medir fast "$TRABAJO/fast.txt" java -XX:SharedArchiveFile="$TRABAJO/fast/app.jsa" -cp "$CLASSPATH_FAST" \
+    -Dspring.aot.enabled=true "${ARGUMENTOS[@]}" org.example.Main
+
+fila() {
+    local nombre="$1"
+    local columna="$2"
+    local normal fast
+    normal=$(awk -v c="$columna" '{ print $c }' "$TRABAJO/normal.txt" | mediana)
+    fast=$(awk -v c="$columna" '{ print $c }' "$TRABAJO/fast.txt" | mediana)
+    awk -v n="$nombre" -v a="$normal" -v b="$fast" \
+        'BEGIN { printf "| %s | %d | %d | %+.0f%% |\n", n, a, b, (a > 0 ? (b - a) * 100 / a : 0) }'
+}
+
+{
+    echo "# Arranque: jar normal vs AOT + AppCDS (sin Docker)"
+    echo
+    echo "$(date -u '+%Y-%m-%d %H:%M UTC'), $REPETICIONES repeticiones por variante (medianas, ms)."
+    echo "Generado con scripts/medir-arranque-jvm.sh: $(java -version 2>&1 | head -1), $(nproc) CPU,"
+    echo "perfil loadtest (H2 en memoria, sin datos). Sin contenedor ni JRE recortado con jlink, y sin"
+    echo "la latencia de Supabase: scripts/medir-arranque.sh mide las imágenes reales."
+    echo
+    echo "| Métrica | Jar normal | AOT + AppCDS | Diferencia |"
+    echo "|---|---:|---:|---:|"
+    fila "Hasta responder /api/config" 1
+    fila "Started Main (Spring)" 2
+    fila "Primera petición /api/dashboard" 3
+    echo
+    echo "| Artefacto | Tamaño |"
+    echo "|---|---:|"
+    echo "| Jar normal | $(du -m "$TRABAJO/normal.jar" | cut -f1) MB |"
+    echo "| Capas AOT + app.jsa | $(du -sm "$TRABAJO/fast" | cut -f1) MB |"
+} > "$INFORME"
+
+cat "$INFORME"
@@ -0,0 +1,97 @@
+#!/usr/bin/env bash
+# ===================================================
+# Compara el arranque de la imagen normal (Dockerfile) con la rápida (Dockerfile.fast)
+# ===================================================
+# Uso: scripts/medir-arranque.sh <fichero.env> [repeticiones]
+#
+# fichero.env: variables de entorno de producción (DATABASE_URL, DB_USERNAME, DB_PASSWORD,
+# MAIL_FROM...) con el formato de "docker run --env-file". Usa una base de datos de pruebas.
+#
+# Para cada imagen y repetición arranca un contenedor nuevo y mide:
+#  - arranque: desde "docker run" hasta que GET /api/config responde 200
+#  - spring:   el "Started Main in X seconds" del log
+#  - 1ª petición: tiempo de la primera petición con datos (GET /api/dashboard)
+# Escribe un informe Markdown con las medianas en arranque-informe.md
+# ===================================================
+set -euo pipefail
+
+ENV_FILE="${1:?Uso: $0 <fichero.env> [repeticiones]}"
+REPETICIONES="${2:-5}"
+PUERTO=18080
+INFORME=arranque-informe.md
+
+cd "$(dirname "$0")/.."
+
+echo "Construyendo imágenes..."
+docker build -q -f Dockerfile -t killerkiss:normal . >/dev/null
+docker build -q -f Dockerfile.fast -t killerkiss:fast . >/dev/null
+
+ms() {
+    echo $(( $(date +%s%N) / 1000000 ))
+}
+
+mediana() {
+    sort -n | awk '{ v[NR] = $1 } END { if (NR % 2) print v[(NR + 1) / 2]; else print (v[NR / 2] + v[NR / 2 + 1]) / 2 }'
+}
+
+medir() {
+    local imagen="$1"
+    local salida="$2"
+    : > "$salida"
+    for i in $(seq 1 "$REPETICIONES"); do
+        local inicio contenedor listo spring primera
+        inicio=$(ms)
+        contenedor=$(docker run -d --rm --env-file "$ENV_FILE" -e PORT=8080 -p "$PUERTO:8080" "$imagen")
+        until curl -sf -o /dev/null "http://localhost:$PUERTO/api/config"; do
+            if (( $(ms) - inicio > 180000 )); then
+                echo "✗ $imagen no ha arrancado en 3 minutos:" >&2
+                docker logs "$contenedor" 2>&1 | tail -20 >&2
+                docker stop "$contenedor" >/dev/null
+                exit 1
+            fi
+            sleep 0.05
+        done
+        listo=$(( $(ms) - inicio ))
+        primera=$(curl -s -o /dev/null -w '%{time_total}' "http://localhost:$PUERTO/api/dashboard" \
+            | awk '{ printf "%d", $1 * 1000 }')
+        spring=$(docker logs "$contenedor" 2>&1 | sed -n 's/.*Started Main in \([0-9.]*\) seconds.*/\1/p' \
+            | awk '{ printf "%d", $1 * 1000 }')
+        docker stop "$contenedor" >/dev/null
+        echo "$listo ${spring:-0} $primera" >> "$salida"
+        echo "  $imagen #$i: arranque ${listo} ms, spring ${spring:-?} ms, 1ª petición ${primera} ms"
+    done
+}
+
+echo "Imagen normal:"
+medir killerkiss:normal /tmp/arranque-normal.txt
+echo "Imagen rápida:"
+medir killerkiss:fast /tmp/arranque-fast.txt
+
+fila() {
+    local nombre="$1"
+    local columna="$2"
+    local normal fast
+    normal=$(awk -v c="$columna" '{ print $c }' /tmp/arranque-normal.txt | mediana)
+    fast=$(awk -v c="$columna" '{ print $c }' /tmp/arranque-fast.txt | mediana)
+    awk -v n="$nombre" -v a="$normal" -v b="$fast" \
+        'BEGIN { printf "| %s | %d | %d | %+.0f%% |\n", n, a, b, (a > 0 ? (b - a) * 100 / a : 0) }'
+}
+
+{
+    echo "# Arranque: imagen normal vs rápida"
+    echo
+    echo "$(date -u '+%Y-%m-%d %H:%M UTC'), $REPETICIONES repeticiones por imagen (medianas, ms)."
+    echo
+    echo "| Métrica | Dockerfile | Dockerfile.fast | Diferencia |"
+    echo "|---|---:|---:|---:|"
+    fila "Hasta responder /api/config" 1
+    fila "Started Main (Spring)" 2
+    fila "Primera petición /api/dashboard" 3
+    echo
+    echo "| Imagen | Tamaño |"
+    echo "|---|---:|"
+    echo "| Dockerfile | $(docker image inspect killerkiss:normal --format '{{.Size}}' | awk '{ printf "%.0f MB", $1 / 1e6 }') |"
+    echo "| Dockerfile.fast | $(docker image inspect killerkiss:fast --format '{{.Size}}' | awk '{ printf "%.0f MB", $1 / 1e6 }') |"
+} > "$INFORME"
+
+cat "$INFORME"
@@ -0,0 +1,119 @@
+package db.migration.postgresql;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Rellena partida_participantes.posicion (el orden del anillo) en las partidas creadas antes
+ * de que existiera la columna. Si la partida tiene filas en la antigua tabla partida_asignaciones
+ * (email cazador → nombre víctima), se reconstruye el anillo siguiendo esa cadena para que los
+ * jugadores conserven la víctima que recibieron por email; si no, se usa el orden físico de las
+ * filas (ctid).
+ *
+ * Es Java porque seguir la cadena no se puede escribir en SQL, y está en db/migration/postgresql
+ * porque ctid y to_regclass son de PostgreSQL; en H2 el esquema sale de V1 y nunca hay huecos.
+ * Como el resto de migraciones, se aplica antes de que la aplicación atienda peticiones y dentro
+ * de la transacción de Flyway.
+ */
+public class V5__orden_anillo_heredado extends BaseJavaMigration {
+
+    @Override
+    public void migrate(Context context) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new SingleConnectionDataSource(context.getConnection(), true));
+
+        List<Long> partidas = jdbcTemplate.queryForList(
+                "SELECT DISTINCT partida_id FROM partida_participantes WHERE posicion IS NULL", Long.class);
+        if (partidas.isEmpty()) {
+            return;
+        }
+
+        boolean hayAsignaciones = Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT to_regclass('partida_asignaciones') IS NOT NULL", Boolean.class));
+        for (Long partidaId : partidas) {
+            rellenarPosiciones(jdbcTemplate, partidaId, hayAsignaciones);
+        }
+        System.out.println("✓ Orden del anillo migrado en " + partidas.size() + " partidas");
+    }
+
+    private void rellenarPosiciones(JdbcTemplate jdbcTemplate, Long partidaId, boolean hayAsignaciones) {
+        List<Participante> participantes = jdbcTemplate.query(
+                "SELECT pp.persona_id, p.mail, p.nom FROM partida_participantes pp " +
+                "JOIN personas p ON p.id = pp.persona_id WHERE pp.partida_id = ? ORDER BY pp.ctid",
+                (rs, i) -> new Participante(rs.getLong(1), rs.getString(2), rs.getString(3)),
+                partidaId);
+
+        List<Participante> anillo = participantes;
+        if (hayAsignaciones) {
+            Map<String, String> asignaciones = new HashMap<>();
+            jdbcTemplate.query(
+                    "SELECT email_cazador, email_objetivo FROM partida_asignaciones WHERE partida_id = ?",
+                    rs -> {
+                        asignaciones.put(rs.getString(1), rs.getString(2));
+                    },
+                    partidaId);
+            List<Participante> cadena = seguirCadena(participantes, asignaciones);
+            if (cadena != null) {
+                anillo = cadena;
+            }
+        }
+
+        List<Object[]> posiciones = new ArrayList<>(anillo.size());
+        for (int i = 0; i < anillo.size(); i++) {
+            posiciones.add(new Object[]{i, partidaId, anillo.get(i).id});
+        }
+        jdbcTemplate.batchUpdate(
+                "UPDATE partida_participantes SET posicion = ? WHERE partida_id = ? AND persona_id = ?", posiciones);
+    }
+
+    /**
+     * Recorre la cadena cazador → víctima a partir del primer participante.
+     * Devuelve null si la cadena no cubre a todos los jugadores exactamente una vez.
+     */
+    private List<Participante> seguirCadena(List<Participante> participantes, Map<String, String> asignaciones) {
+        if (asignaciones.size() != participantes.size()) {
+            return null;
+        }
+        Map<String, List<Participante>> porNombre = new HashMap<>();
+        for (Participante p : participantes) {
+            porNombre.computeIfAbsent(p.nom, n -> new ArrayList<>()).add(p);
+        }
+
+        List<Participante> cadena = new ArrayList<>(participantes.size());
+        Set<Long> visitados = new HashSet<>();
+        Participante actual = participantes.get(0);
+        while (actual != null && visitados.add(actual.id)) {
+            cadena.add(actual);
+            Participante siguiente = null;
+            for (Participante candidato : porNombre.getOrDefault(asignaciones.get(actual.mail), List.of())) {
+                if (!visitados.contains(candidato.id)) {
+                    siguiente = candidato;
+                    break;
+                }
+            }
+            actual = siguiente;
+        }
+        return cadena.size() == participantes.size() ? cadena : null;
+    }
+
+    private static class Participante {
+
+        private final long id;
+        private final String mail;
+        private final String nom;
+
+        private Participante(long id, String mail, String nom) {
+            this.id = id;
+            this.mail = mail;
+            this.nom = nom;
+        }
+    }
+}
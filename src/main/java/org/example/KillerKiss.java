@@ -5,6 +5,8 @@ import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -13,28 +15,55 @@ import java.util.List;
 import java.util.Map;
 
 @Entity
-@Table(name = "partidas")
+@Table(name = "partidas", indexes = {
+    @Index(name = "idx_partidas_estat_fecha", columnList = "estat, fecha_creacion"),
+    @Index(name = "idx_partidas_ganador", columnList = "ganador_id")
+})
+@NamedEntityGraph(
+    name = KillerKiss.GRAFO_PARTICIPANTES,
+    attributeNodes = {
+        @NamedAttributeNode("personas"),
+        @NamedAttributeNode("ganador")
+    }
+)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class KillerKiss {
+
+    /**
+     * Plan de carga para listados y detalle: participantes y ganador en la misma consulta.
+     */
+    public static final String GRAFO_PARTICIPANTES = "KillerKiss.participantes";
     
+    /** Secuencia pooled (bloques de 50 IDs), como en Persona. */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "partidas_seq")
+    @SequenceGenerator(name = "partidas_seq", sequenceName = "partidas_seq", allocationSize = 50)
     private Long id;
     
     @NotBlank(message = "El nombre de la partida no puede estar vacío")
     @Column(nullable = false)
     private String nom;
     
-    @ManyToMany(fetch = FetchType.EAGER)
+    /**
+     * Participantes en el orden del anillo: cada uno persigue al siguiente y el último al primero.
+     * El orden se guarda en partida_participantes.posicion.
+     */
+    @ManyToMany(fetch = FetchType.LAZY)
+    @Fetch(FetchMode.SUBSELECT)
     @JoinTable(
         name = "partida_participantes",
         joinColumns = @JoinColumn(name = "partida_id"),
         inverseJoinColumns = @JoinColumn(name = "persona_id")
     )
+    @OrderColumn(name = "posicion")
     private List<Persona> personas = new ArrayList<>();
     
+    /**
+     * true mientras se juega. No puede haber dos partidas activas con el mismo nombre:
+     * lo garantiza el índice único parcial uk_partidas_nom_activa (migración V3).
+     */
     @Column(nullable = false)
     private boolean estat = false;
     
@@ -47,12 +76,6 @@ public class KillerKiss {
     
     @Column(name = "fecha_finalizacion")
     private LocalDateTime fechaFinalizacion;
-    
-    @ElementCollection(fetch = FetchType.EAGER)
-    @CollectionTable(name = "partida_asignaciones", joinColumns = @JoinColumn(name = "partida_id"))
-    @MapKeyColumn(name = "email_cazador")
-    @Column(name = "email_objetivo")
-    private Map<String, String> asignaciones = new HashMap<>();
 
     public KillerKiss(String nom, List<Persona> personas) {
         this.nom = nom;
@@ -138,12 +161,21 @@ public class KillerKiss {
     public void setFechaFinalizacion(LocalDateTime fechaFinalizacion) {
         this.fechaFinalizacion = fechaFinalizacion;
     }
-    
+
+    /**
+     * Asignaciones (email del jugador → nombre de su víctima) derivadas del orden del anillo.
+     * No se guardan: se calculan al leer, solo para jugadores con email.
+     */
+    @Transient
     public Map<String, String> getAsignaciones() {
+        Map<String, String> asignaciones = new HashMap<>();
+        for (int i = 0; i < personas.size(); i++) {
+            Persona jugador = personas.get(i);
+            Persona victima = personas.get((i + 1) % personas.size());
+            if (jugador.getMail() != null && !jugador.getMail().isEmpty()) {
+                asignaciones.put(jugador.getMail(), victima.getNom() != null ? victima.getNom() : "Desconocido");
+            }
+        }
         return asignaciones;
     }
-    
-    public void setAsignaciones(Map<String, String> asignaciones) {
-        this.asignaciones = asignaciones;
-    }
 }
@@ -8,14 +8,21 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "personas")
+@Table(name = "personas", indexes = {
+    @Index(name = "idx_personas_ranking", columnList = "victories DESC, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Persona {
     
+    /**
+     * Secuencia con optimizador pooled: Hibernate reserva los IDs de 50 en 50 y puede
+     * agrupar los INSERT en lotes JDBC (con IDENTITY no puede).
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "personas_seq")
+    @SequenceGenerator(name = "personas_seq", sequenceName = "personas_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
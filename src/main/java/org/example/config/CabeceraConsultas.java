@@ -0,0 +1,46 @@
+package org.example.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.util.Locale;
+
+/**
+ * Añade a las respuestas de /api/ las cabeceras X-Consultas-SQL, X-Consultas-Tiempo-Ms y,
+ * si hay una consulta repetida, X-Consultas-Repetidas (veces que se ha repetido).
+ *
+ * Solo fuera de producción (consultas.cabecera). Se escriben justo antes de serializar la
+ * respuesta: lo que se cargue durante la serialización solo aparece en las métricas.
+ */
+@ControllerAdvice
+public class CabeceraConsultas implements ResponseBodyAdvice<Object> {
+
+    @Value("${consultas.cabecera:true}")
+    private boolean habilitada;
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return habilitada;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType contentType,
+                                  Class<? extends HttpMessageConverter<?>> converterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        ConsultasPorPeticion.Registro registro = ConsultasPorPeticion.actual();
+        if (registro != null) {
+            response.getHeaders().set("X-Consultas-SQL", Integer.toString(registro.getSentencias()));
+            response.getHeaders().set("X-Consultas-Tiempo-Ms", String.format(Locale.ROOT, "%.1f", registro.getTiempoMs()));
+            if (registro.getRepeticiones() > 1) {
+                response.getHeaders().set("X-Consultas-Repetidas", Integer.toString(registro.getRepeticiones()));
+            }
+        }
+        return body;
+    }
+}
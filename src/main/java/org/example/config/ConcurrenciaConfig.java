@@ -0,0 +1,52 @@
+package org.example.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * Modo de ejecución con hilos virtuales (opcional).
+ *
+ * Se activa con VIRTUAL_THREADS=true (spring.threads.virtual.enabled) y solo tiene efecto con
+ * Java 21 o superior: Spring Boot sirve entonces cada petición en un hilo virtual. Como las
+ * conexiones a la base de datos son pocas (3 en Supabase Free), el DataSource se envuelve en
+ * un DataSourceLimitado con tantos permisos como conexiones tiene el pool.
+ *
+ * Las llamadas a Resend ya tienen su propio límite (resend.max-concurrencia), son asíncronas y
+ * nunca se hacen con una conexión abierta, así que un envío lento no bloquea las lecturas.
+ * La contención del semáforo se publica como métricas killerkiss.bd.bulkhead.* (MetricasConfig).
+ */
+@Configuration
+public class ConcurrenciaConfig {
+
+    /**
+     * static: los BeanPostProcessor se crean antes que el resto de beans de la configuración.
+     */
+    @Bean
+    public static BeanPostProcessor limiteConexiones(Environment env) {
+        boolean hilosVirtuales = env.getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+        boolean activo = env.getProperty("bd.bulkhead.enabled", Boolean.class, hilosVirtuales);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!activo || !(bean instanceof DataSource) || bean instanceof DataSourceLimitado) {
+                    return bean;
+                }
+                int permisos = 10;
+                long esperaMs = 30000;
+                if (bean instanceof HikariDataSource hikari) {
+                    permisos = hikari.getMaximumPoolSize();
+                    esperaMs = hikari.getConnectionTimeout();
+                }
+                permisos = env.getProperty("bd.bulkhead.permisos", Integer.class, permisos);
+                System.out.println("✓ Límite de conexiones activo: " + permisos + " permisos (cola FIFO)");
+                return new DataSourceLimitado((DataSource) bean, permisos, esperaMs);
+            }
+        };
+    }
+
+}
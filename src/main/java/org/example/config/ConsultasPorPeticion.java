@@ -0,0 +1,207 @@
+package org.example.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.hibernate.SessionEventListener;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Cuenta las sentencias SQL y el tiempo JDBC de cada petición a /api/.
+ *
+ * Hibernate avisa de cada sentencia (Inspector) y de cuánto tarda en ejecutarse (TiempoJdbc);
+ * ambos suman en el registro del hilo que atiende la petición. Al terminar se publica por
+ * endpoint el número de sentencias (killerkiss.http.consultas) y el tiempo JDBC, y se avisa
+ * en el log si se supera consultas.presupuesto o si la misma consulta (misma forma, con otros
+ * parámetros) se repite consultas.n-mas-1.umbral veces o más: casi siempre es un N+1.
+ *
+ * No cuenta lo que no pasa por Hibernate (JdbcTemplate) ni lo que se ejecuta en otros hilos.
+ */
+@Component
+public class ConsultasPorPeticion extends OncePerRequestFilter {
+
+    private static final ThreadLocal<Registro> ACTUAL = new ThreadLocal<>();
+
+    /** Listas de parámetros de longitud variable: "in (?,?,?)" cuenta como "in (?)". */
+    private static final Pattern LISTA_PARAMETROS = Pattern.compile("\\(\\s*\\?(\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern ESPACIOS = Pattern.compile("\\s+");
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${consultas.presupuesto:15}")
+    private int presupuesto;
+
+    @Value("${consultas.n-mas-1.umbral:5}")
+    private int umbralRepetidas;
+
+    /**
+     * Registro de la petición en curso en este hilo, o null fuera de una petición.
+     */
+    public static Registro actual() {
+        return ACTUAL.get();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Registro registro = new Registro();
+        ACTUAL.set(registro);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ACTUAL.remove();
+            publicar(request, registro);
+        }
+    }
+
+    private void publicar(HttpServletRequest request, Registro registro) {
+        Object patron = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (patron == null) {
+            // 404 u otra ruta sin controller: no se crean series por cada URL inventada
+            return;
+        }
+        String metodo = request.getMethod();
+        String uri = patron.toString();
+        DistributionSummary.builder("killerkiss.http.consultas")
+                .description("Sentencias SQL por petición")
+                .baseUnit("sentencias")
+                .tag("method", metodo)
+                .tag("uri", uri)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(registro.getSentencias());
+        Timer.builder("killerkiss.http.consultas.tiempo")
+                .description("Tiempo ejecutando sentencias SQL por petición")
+                .tag("method", metodo)
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(registro.getTiempoNanos(), TimeUnit.NANOSECONDS);
+
+        String repetida = registro.getMasRepetida();
+        boolean nMasUno = registro.getRepeticiones() >= umbralRepetidas;
+        if (nMasUno) {
+            Counter.builder("killerkiss.http.consultas.n_mas_1")
+                    .description("Peticiones con una misma consulta repetida (probable N+1)")
+                    .tag("method", metodo)
+                    .tag("uri", uri)
+                    .register(meterRegistry)
+                    .increment();
+        }
+        if (nMasUno || registro.getSentencias() > presupuesto) {
+            System.err.printf("✗ %s %s: %d sentencias SQL (presupuesto %d), %.1f ms JDBC%s%n",
+                    metodo, uri, registro.getSentencias(), presupuesto, registro.getTiempoMs(),
+                    nMasUno ? " | probable N+1: " + registro.getRepeticiones() + " × " + repetida : "");
+        }
+    }
+
+    /**
+     * Forma de una consulta: sin espacios sobrantes ni diferencias en listas de parámetros.
+     */
+    static String forma(String sql) {
+        String forma = ESPACIOS.matcher(sql.trim()).replaceAll(" ").toLowerCase();
+        return LISTA_PARAMETROS.matcher(forma).replaceAll("(?)");
+    }
+
+    /**
+     * Sentencias y tiempo JDBC de una petición. Solo lo usa el hilo de la petición.
+     */
+    public static final class Registro {
+
+        private final Map<String, Integer> formas = new HashMap<>();
+        private int sentencias;
+        private long tiempoNanos;
+        private String masRepetida;
+        private int repeticiones;
+
+        private void sentencia(String sql) {
+            sentencias++;
+            String forma = forma(sql);
+            int veces = formas.merge(forma, 1, Integer::sum);
+            if (veces > repeticiones) {
+                repeticiones = veces;
+                masRepetida = forma;
+            }
+        }
+
+        public int getSentencias() {
+            return sentencias;
+        }
+
+        public long getTiempoNanos() {
+            return tiempoNanos;
+        }
+
+        public double getTiempoMs() {
+            return tiempoNanos / 1_000_000.0;
+        }
+
+        /** Veces que se ha ejecutado la consulta más repetida. */
+        public int getRepeticiones() {
+            return repeticiones;
+        }
+
+        public String getMasRepetida() {
+            return masRepetida;
+        }
+    }
+
+    /**
+     * Recibe cada sentencia que prepara Hibernate; no la modifica.
+     */
+    public static class Inspector implements StatementInspector {
+
+        @Override
+        public String inspect(String sql) {
+            Registro registro = ACTUAL.get();
+            if (registro != null) {
+                registro.sentencia(sql);
+            }
+            return sql;
+        }
+    }
+
+    /**
+     * Mide la ejecución de cada sentencia. Hibernate crea uno por sesión
+     * (hibernate.session.events.auto), por eso necesita un constructor sin argumentos.
+     */
+    public static class TiempoJdbc implements SessionEventListener {
+
+        private long inicio;
+
+        @Override
+        public void jdbcExecuteStatementStart() {
+            inicio = System.nanoTime();
+        }
+
+        @Override
+        public void jdbcExecuteStatementEnd() {
+            Registro registro = ACTUAL.get();
+            if (registro != null && inicio != 0) {
+                registro.tiempoNanos += System.nanoTime() - inicio;
+            }
+            inicio = 0;
+        }
+    }
+}
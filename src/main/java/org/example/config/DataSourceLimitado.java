@@ -0,0 +1,167 @@
+package org.example.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * DataSource con un semáforo justo (FIFO) delante del pool de conexiones.
+ *
+ * Con hilos virtuales puede haber miles de peticiones a la vez para 3 conexiones: las que
+ * esperan quedan aparcadas en el semáforo por orden de llegada (sin ocupar hilos del sistema)
+ * y solo tantas como conexiones hay llegan a pedir una al pool. El permiso se devuelve al
+ * cerrar la conexión.
+ */
+public class DataSourceLimitado extends DelegatingDataSource {
+
+    private final Semaphore permisos;
+    private final int totalPermisos;
+    private final long esperaMaximaMs;
+
+    private final AtomicLong adquisiciones = new AtomicLong();
+    private final AtomicLong esperas = new AtomicLong();
+    private final AtomicLong rechazos = new AtomicLong();
+    private final AtomicLong esperaTotalNanos = new AtomicLong();
+    private final AtomicLong esperaMaximaNanos = new AtomicLong();
+
+    /**
+     * @param permisos       conexiones simultáneas (normalmente el tamaño del pool)
+     * @param esperaMaximaMs tiempo máximo esperando turno antes de fallar
+     */
+    public DataSourceLimitado(DataSource destino, int permisos, long esperaMaximaMs) {
+        super(destino);
+        this.permisos = new Semaphore(permisos, true);
+        this.totalPermisos = permisos;
+        this.esperaMaximaMs = esperaMaximaMs;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        adquirir();
+        return envolver(() -> super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        adquirir();
+        return envolver(() -> super.getConnection(username, password));
+    }
+
+    private void adquirir() throws SQLException {
+        long inicio = System.nanoTime();
+        try {
+            // tryAcquire(0, ...) respeta el orden de llegada; tryAcquire() se saltaría la cola
+            if (!permisos.tryAcquire(0, TimeUnit.MILLISECONDS)) {
+                esperas.incrementAndGet();
+                if (!permisos.tryAcquire(esperaMaximaMs, TimeUnit.MILLISECONDS)) {
+                    rechazos.incrementAndGet();
+                    throw new SQLTransientConnectionException(
+                            "Sin conexión a la base de datos tras " + esperaMaximaMs + " ms de espera");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrumpido esperando una conexión", e);
+        }
+        long espera = System.nanoTime() - inicio;
+        adquisiciones.incrementAndGet();
+        esperaTotalNanos.addAndGet(espera);
+        esperaMaximaNanos.accumulateAndGet(espera, Math::max);
+    }
+
+    private Connection envolver(Apertura apertura) throws SQLException {
+        Connection conexion;
+        try {
+            conexion = apertura.abrir();
+        } catch (SQLException | RuntimeException e) {
+            permisos.release();
+            throw e;
+        }
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, new Liberador(conexion));
+    }
+
+    // Estadísticas (acumuladas desde el arranque)
+
+    public int getPermisos() {
+        return totalPermisos;
+    }
+
+    public int getEnUso() {
+        return totalPermisos - permisos.availablePermits();
+    }
+
+    public int getEnCola() {
+        return permisos.getQueueLength();
+    }
+
+    public long getAdquisiciones() {
+        return adquisiciones.get();
+    }
+
+    public long getEsperas() {
+        return esperas.get();
+    }
+
+    public long getRechazos() {
+        return rechazos.get();
+    }
+
+    public double getEsperaMediaMs() {
+        long total = adquisiciones.get();
+        return total == 0 ? 0 : esperaTotalNanos.get() / 1_000_000.0 / total;
+    }
+
+    public double getEsperaMaximaMs() {
+        return esperaMaximaNanos.get() / 1_000_000.0;
+    }
+
+    @FunctionalInterface
+    private interface Apertura {
+        Connection abrir() throws SQLException;
+    }
+
+    /**
+     * Delega todo en la conexión real y devuelve el permiso la primera vez que se cierra.
+     */
+    private final class Liberador implements InvocationHandler {
+
+        private final Connection conexion;
+        private final AtomicBoolean cerrada = new AtomicBoolean();
+
+        private Liberador(Connection conexion) {
+            this.conexion = conexion;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method metodo, Object[] args) throws Throwable {
+            if ("close".equals(metodo.getName()) && metodo.getParameterCount() == 0) {
+                if (!cerrada.compareAndSet(false, true)) {
+                    return null;
+                }
+                try {
+                    conexion.close();
+                } finally {
+                    permisos.release();
+                }
+                return null;
+            }
+            try {
+                return metodo.invoke(conexion, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package org.example.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Genera datos sintéticos para las pruebas de carga (solo con el perfil "loadtest").
+ *
+ * Inserta loadtest.personas personas y loadtest.partidas partidas con JDBC por lotes. Los
+ * anillos tienen tamaños realistas (la mayoría entre 6 y 20 jugadores, algunos de hasta 60),
+ * el 5 % de las partidas sigue activa y las victorias de cada persona coinciden con las
+ * partidas que ha ganado. Con la misma semilla los datos son siempre los mismos, así que
+ * el cliente de carga puede pedir ids al azar entre 1 y el total.
+ *
+ * Se ejecuta al crear el bean, justo después de que Hibernate cree el esquema y antes de que
+ * el servidor acepte peticiones (un ApplicationRunner iría con el puerto ya abierto).
+ */
+@Component
+@Profile("loadtest")
+@DependsOn("entityManagerFactory")
+public class GeneradorDatosCarga implements InitializingBean {
+
+    private static final int LOTE = 5000;
+    private static final int MIN_JUGADORES = 4;
+    private static final int MAX_JUGADORES = 60;
+    private static final double ACTIVAS = 0.05;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SecuenciasIds secuenciasIds;
+
+    @Value("${loadtest.personas:1000000}")
+    private int numPersonas;
+
+    @Value("${loadtest.partidas:100000}")
+    private int numPartidas;
+
+    @Value("${loadtest.jugadores-medio:12}")
+    private int jugadoresMedio;
+
+    @Value("${loadtest.semilla:42}")
+    private long semilla;
+
+    @Override
+    public void afterPropertiesSet() {
+        Long existentes = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM personas", Long.class);
+        if (existentes != null && existentes > 0) {
+            return;
+        }
+        long inicio = System.currentTimeMillis();
+
+        // Primera pasada: solo ganadores, para saber las victorias de cada persona
+        int[] victorias = new int[numPersonas + 1];
+        for (int i = 1; i <= numPartidas; i++) {
+            Partida partida = partida(i);
+            if (!partida.activa) {
+                victorias[partida.jugadores.get(0).intValue()]++;
+            }
+        }
+        insertarPersonas(victorias);
+        insertarPartidas();
+
+        // Los IDs se han insertado a mano: las secuencias tienen que seguir a partir de ellos
+        secuenciasIds.ajustar();
+        System.out.println("✓ Datos de carga generados: " + numPersonas + " personas, " + numPartidas
+                + " partidas en " + (System.currentTimeMillis() - inicio) + " ms");
+    }
+
+    private void insertarPersonas(int[] victorias) {
+        List<Object[]> filas = new ArrayList<>(LOTE);
+        for (int id = 1; id <= numPersonas; id++) {
+            filas.add(new Object[]{id, "Jugador " + id, "jugador" + id + "@loadtest.local", victorias[id]});
+            if (filas.size() == LOTE || id == numPersonas) {
+                jdbcTemplate.batchUpdate("INSERT INTO personas (id, nom, mail, victories) VALUES (?, ?, ?, ?)", filas);
+                filas.clear();
+            }
+        }
+    }
+
+    /**
+     * Segunda pasada: las mismas partidas (misma semilla por partida) con sus participantes.
+     */
+    private void insertarPartidas() {
+        // Una partida cada 30 minutos; las finalizadas duran 3 días y la última empieza hoy
+        LocalDateTime origen = LocalDateTime.now().minusMinutes(numPartidas * 30L);
+        List<Object[]> partidas = new ArrayList<>(LOTE);
+        List<Object[]> participantes = new ArrayList<>(LOTE * jugadoresMedio);
+        for (int id = 1; id <= numPartidas; id++) {
+            Partida partida = partida(id);
+            LocalDateTime creacion = origen.plusMinutes(id * 30L);
+            Long ganador = partida.activa ? null : partida.jugadores.get(0);
+            Timestamp fin = partida.activa ? null : Timestamp.valueOf(creacion.plusDays(3));
+            partidas.add(new Object[]{id, "Partida " + id, partida.activa, ganador, Timestamp.valueOf(creacion), fin});
+            for (int posicion = 0; posicion < partida.jugadores.size(); posicion++) {
+                participantes.add(new Object[]{id, partida.jugadores.get(posicion), posicion});
+            }
+            if (partidas.size() == LOTE || id == numPartidas) {
+                jdbcTemplate.batchUpdate("INSERT INTO partidas (id, nom, estat, ganador_id, fecha_creacion, fecha_finalizacion) "
+                        + "VALUES (?, ?, ?, ?, ?, ?)", partidas);
+                jdbcTemplate.batchUpdate("INSERT INTO partida_participantes (partida_id, persona_id, posicion) "
+                        + "VALUES (?, ?, ?)", participantes);
+                partidas.clear();
+                participantes.clear();
+            }
+        }
+    }
+
+    /**
+     * Partida determinista: tamaño del anillo, jugadores distintos y si sigue activa.
+     * El ganador de una partida finalizada es el primer jugador del anillo.
+     */
+    private Partida partida(int id) {
+        Random random = new Random(semilla * 1_000_003L + id);
+        int tamano = (int) Math.round(jugadoresMedio + random.nextGaussian() * jugadoresMedio / 2.0);
+        tamano = Math.max(MIN_JUGADORES, Math.min(MAX_JUGADORES, Math.min(tamano, numPersonas)));
+        Set<Long> elegidos = new HashSet<>(tamano * 2);
+        List<Long> jugadores = new ArrayList<>(tamano);
+        while (jugadores.size() < tamano) {
+            long persona = 1 + random.nextInt(numPersonas);
+            if (elegidos.add(persona)) {
+                jugadores.add(persona);
+            }
+        }
+        return new Partida(jugadores, random.nextDouble() < ACTIVAS);
+    }
+
+    private static class Partida {
+
+        private final List<Long> jugadores;
+        private final boolean activa;
+
+        private Partida(List<Long> jugadores, boolean activa) {
+            this.jugadores = jugadores;
+            this.activa = activa;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package org.example.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.example.service.EmailCounter;
+import org.example.service.SendGridApiService;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Métricas de la aplicación, publicadas en /actuator/prometheus.
+ *
+ * Spring Boot ya mide cada endpoint (http.server.requests), el pool Hikari (hikaricp.*) y,
+ * con hibernate.generate_statistics, las consultas, cargas de entidades y aciertos de caché
+ * (hibernate.*). Aquí se añade lo propio: el tiempo de los servicios (@Timed), la cuota
+ * diaria de emails, la cola de Resend y, si está activo, el semáforo de conexiones.
+ */
+@Configuration
+public class MetricasConfig {
+
+    /**
+     * Necesario para que @Timed funcione fuera de los controllers.
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+
+    /**
+     * Conecta ConsultasPorPeticion con Hibernate: sentencias (inspector) y tiempo JDBC (listener por sesión).
+     */
+    @Bean
+    public HibernatePropertiesCustomizer inspectorConsultas() {
+        return propiedades -> {
+            propiedades.put("hibernate.session_factory.statement_inspector", new ConsultasPorPeticion.Inspector());
+            propiedades.put("hibernate.session.events.auto", ConsultasPorPeticion.TiempoJdbc.class.getName());
+        };
+    }
+
+    @Bean
+    public MeterBinder metricasEmail(EmailCounter emailCounter, SendGridApiService sendGridApiService) {
+        return registry -> {
+            Gauge.builder("killerkiss.email.cuota.usada", emailCounter, EmailCounter::getEnviadosHoy)
+                    .description("Emails enviados o reservados hoy")
+                    .register(registry);
+            Gauge.builder("killerkiss.email.cuota.limite", emailCounter, EmailCounter::getLimiteDiario)
+                    .description("Límite diario de emails")
+                    .register(registry);
+            Gauge.builder("killerkiss.email.peticiones.en_vuelo", sendGridApiService, SendGridApiService::getEnVuelo)
+                    .description("Peticiones a Resend en curso")
+                    .register(registry);
+            Gauge.builder("killerkiss.email.peticiones.en_cola", sendGridApiService, SendGridApiService::getEnCola)
+                    .description("Peticiones a Resend esperando hueco (resend.max-concurrencia)")
+                    .register(registry);
+        };
+    }
+
+    /**
+     * Estado del semáforo de DataSourceLimitado; sin bulkhead no se registra nada.
+     */
+    @Bean
+    public MeterBinder metricasBulkhead(DataSource dataSource) {
+        return registry -> {
+            if (!(dataSource instanceof DataSourceLimitado limitado)) {
+                return;
+            }
+            Gauge.builder("killerkiss.bd.bulkhead.permisos", limitado, DataSourceLimitado::getPermisos)
+                    .register(registry);
+            Gauge.builder("killerkiss.bd.bulkhead.en_uso", limitado, DataSourceLimitado::getEnUso)
+                    .register(registry);
+            Gauge.builder("killerkiss.bd.bulkhead.en_cola", limitado, DataSourceLimitado::getEnCola)
+                    .register(registry);
+            Gauge.builder("killerkiss.bd.bulkhead.adquisiciones", limitado, DataSourceLimitado::getAdquisiciones)
+                    .description("Conexiones concedidas (acumulado)")
+                    .register(registry);
+            Gauge.builder("killerkiss.bd.bulkhead.esperas", limitado, DataSourceLimitado::getEsperas)
+                    .description("Adquisiciones que tuvieron que esperar (acumulado)")
+                    .register(registry);
+            Gauge.builder("killerkiss.bd.bulkhead.rechazos", limitado, DataSourceLimitado::getRechazos)
+                    .description("Adquisiciones que agotaron la espera (acumulado)")
+                    .register(registry);
+            Gauge.builder("killerkiss.bd.bulkhead.espera.media", limitado, DataSourceLimitado::getEsperaMediaMs)
+                    .baseUnit("milliseconds")
+                    .register(registry);
+            Gauge.builder("killerkiss.bd.bulkhead.espera.maxima", limitado, DataSourceLimitado::getEsperaMaximaMs)
+                    .baseUnit("milliseconds")
+                    .register(registry);
+        };
+    }
+}
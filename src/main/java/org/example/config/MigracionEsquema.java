@@ -0,0 +1,29 @@
+package org.example.config;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.stereotype.Component;
+
+/**
+ * Aplica las migraciones de Flyway al arrancar, salvo con esquema.migrar-al-arrancar=false.
+ *
+ * Con Spring AOT (Dockerfile.fast) spring.flyway.enabled se evalúa al compilar y ya no se puede
+ * desactivar al ejecutar; esta propiedad sí se lee al arrancar. La usa el arranque de
+ * entrenamiento de AppCDS, que no tiene base de datos.
+ */
+@Component
+public class MigracionEsquema implements FlywayMigrationStrategy {
+
+    @Value("${esquema.migrar-al-arrancar:true}")
+    private boolean migrar;
+
+    @Override
+    public void migrate(Flyway flyway) {
+        if (migrar) {
+            flyway.migrate();
+        } else {
+            System.out.println("✓ Migraciones de esquema omitidas (esquema.migrar-al-arrancar=false)");
+        }
+    }
+}
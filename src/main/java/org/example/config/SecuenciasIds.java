@@ -0,0 +1,74 @@
+package org.example.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Pone las secuencias de IDs por delante de los IDs que ya existen.
+ *
+ * Las tablas se crearon con columnas IDENTITY; la migración V1 crea las secuencias empezando
+ * en 1, así que sin este ajuste el primer INSERT chocaría con filas antiguas. Con el optimizador
+ * pooled, un nextval que devuelve V reserva los IDs V-49..V: la secuencia tiene que devolver
+ * al menos MAX(id) + incremento.
+ *
+ * Solo adelanta, nunca retrocede: otra instancia (por ejemplo, durante un despliegue) puede
+ * tener reservado un bloque por encima del máximo actual. Se ejecuta antes de abrir el puerto,
+ * salvo con esquema.migrar-al-arrancar=false (igual que las migraciones): el arranque de
+ * entrenamiento de Dockerfile.fast no tiene base de datos.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class SecuenciasIds implements InitializingBean {
+
+    /** Secuencia, tabla e incremento (el allocationSize de la entidad). */
+    private static final Object[][] SECUENCIAS = {
+        {"personas_seq", "personas", 50},
+        {"partidas_seq", "partidas", 50},
+        {"email_outbox_seq", "email_outbox", 50},
+        {"email_counter_seq", "email_counter", 1}
+    };
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Value("${esquema.migrar-al-arrancar:true}")
+    private boolean ajustarAlArrancar;
+
+    @Override
+    public void afterPropertiesSet() {
+        if (ajustarAlArrancar) {
+            ajustar();
+        }
+    }
+
+    /**
+     * Ajusta todas las secuencias. GeneradorDatosCarga lo vuelve a llamar después de
+     * insertar sus filas con IDs explícitos.
+     */
+    public void ajustar() {
+        Dialect dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+        for (Object[] secuencia : SECUENCIAS) {
+            String nombre = (String) secuencia[0];
+            int incremento = (Integer) secuencia[2];
+            Long maximo = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + secuencia[1], Long.class);
+            long minimo = (maximo != null ? maximo : 0) + incremento;
+            // Consume un valor (como mucho un bloque sin usar) para saber por dónde va
+            Long siguiente = jdbcTemplate.queryForObject(
+                    dialect.getSequenceSupport().getSequenceNextValString(nombre), Long.class);
+            if (siguiente == null || siguiente < minimo) {
+                jdbcTemplate.execute("ALTER SEQUENCE " + nombre + " RESTART WITH " + minimo);
+                System.out.println("✓ Secuencia " + nombre + " adelantada a " + minimo);
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package org.example.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Protege los endpoints de Actuator salvo /actuator/health.
+ *
+ * Con metricas.publicas=false (perfil prod) hay que mandar "Authorization: Bearer
+ * &lt;metricas.token&gt;"; es lo que configura el scrape de Prometheus. Sin token configurado
+ * no entra nadie. Render solo publica un puerto, así que no sirve management.server.port.
+ */
+@Component
+public class TokenMetricas extends OncePerRequestFilter {
+
+    private static final String PREFIJO = "Bearer ";
+
+    @Value("${metricas.publicas:true}")
+    private boolean publicas;
+
+    @Value("${metricas.token:}")
+    private String token;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String ruta = request.getRequestURI();
+        return publicas || !ruta.startsWith("/actuator") || ruta.startsWith("/actuator/health");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (autorizada(request.getHeader(HttpHeaders.AUTHORIZATION))) {
+            chain.doFilter(request, response);
+            return;
+        }
+        response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+        response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+    }
+
+    private boolean autorizada(String cabecera) {
+        if (token.isBlank() || cabecera == null || !cabecera.startsWith(PREFIJO)) {
+            return false;
+        }
+        // Comparación en tiempo constante
+        return MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8),
+                cabecera.substring(PREFIJO.length()).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,5 +1,6 @@
 package org.example.controller;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -17,6 +18,9 @@ public class AuthController {
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
 
     /**
@@ -39,23 +43,19 @@ public class AuthController {
             String sql = "SELECT password FROM usuarios WHERE username = ?";
             String hashedPassword = jdbcTemplate.queryForObject(sql, String.class, username);
 
-            System.out.println("=== LOGIN DEBUG ===");
-            System.out.println("Hash DB: " + hashedPassword);
-            System.out.println("Password: " + password);
-            System.out.println("Hash length: " + (hashedPassword != null ? hashedPassword.length() : "null"));
-            
             boolean matches = passwordEncoder.matches(password, hashedPassword);
-            System.out.println("BCrypt matches: " + matches);
 
             if (hashedPassword != null && matches) {
+                contarLogin("ok");
                 return ResponseEntity.ok(Map.of("success", true, "message", "Login exitoso"));
             } else {
+                contarLogin("contrasena_incorrecta");
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(Map.of("success", false, "message", "Contraseña incorrecta"));
             }
         } catch (Exception e) {
             System.out.println("Error en login: " + e.getMessage());
-            e.printStackTrace();
+            contarLogin("usuario_no_encontrado");
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                 .body(Map.of("success", false, "message", "Usuario no encontrado"));
         }
@@ -80,4 +80,8 @@ public class AuthController {
                 .body(Map.of("success", false, "message", "Error: usuario ya existe"));
         }
     }
+
+    private void contarLogin(String resultado) {
+        meterRegistry.counter("killerkiss.auth.login", "resultado", resultado).increment();
+    }
 }
@@ -0,0 +1,60 @@
+package org.example.controller;
+
+import org.example.service.RegistroCambios;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Controller REST para la sincronización incremental.
+ * El cliente guarda la última versión recibida y pide solo lo que ha cambiado desde ella.
+ */
+@RestController
+@RequestMapping("/api/changes")
+@CrossOrigin(origins = "*") // Permite peticiones desde cualquier origen (para desarrollo)
+public class CambiosController {
+
+    @Autowired
+    private RegistroCambios registroCambios;
+
+    /**
+     * GET /api/changes?since=N&limite=500
+     * Devuelve los ids insertados, modificados y eliminados de personas y partidas desde la
+     * versión N, con las filas actuales, y la versión "hasta" para la siguiente petición.
+     * Si hayMas es true hay que volver a llamar con since=hasta.
+     * 410 Gone si N es demasiado antigua: hay que recargar todo (/api/dashboard).
+     */
+    @GetMapping
+    public ResponseEntity<?> obtenerDesde(@RequestParam(name = "since") long since,
+                                          @RequestParam(name = "limite", required = false) Integer limite) {
+        try {
+            RegistroCambios.CambiosDTO cambios = registroCambios.obtenerDesde(since, limite);
+            return ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(cambios);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.GONE).body(new ErrorResponse(e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * Clase interna para respuestas de error.
+     */
+    public static class ErrorResponse {
+        private String error;
+
+        public ErrorResponse(String error) {
+            this.error = error;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public void setError(String error) {
+            this.error = error;
+        }
+    }
+}
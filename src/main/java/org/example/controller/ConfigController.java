@@ -1,5 +1,7 @@
 package org.example.controller;
 
+import org.example.service.EmailOutboxService;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -24,16 +26,28 @@ public class ConfigController {
     @Value("${emailjs.public-key}")
     private String emailjsPublicKey;
 
+    @Autowired
+    private EmailOutboxService emailOutboxService;
+
     /**
      * GET /api/config
      * Devuelve la configuración pública necesaria para el frontend.
+     * envioServidor indica que los emails de partida los envía el servidor (outbox).
      */
     @GetMapping
-    public ResponseEntity<Map<String, String>> getConfig() {
-        return ResponseEntity.ok(Map.of(
+    public ResponseEntity<Map<String, Object>> getConfig() {
+        return ResponseEntity.ok(configuracionPublica());
+    }
+
+    /**
+     * Configuración pública (también se incluye en /api/dashboard).
+     */
+    public Map<String, Object> configuracionPublica() {
+        return Map.of(
             "emailjsServiceId",  emailjsServiceId,
             "emailjsTemplateId", emailjsTemplateId,
-            "emailjsPublicKey",  emailjsPublicKey
-        ));
+            "emailjsPublicKey",  emailjsPublicKey,
+            "envioServidor",     emailOutboxService.isHabilitado()
+        );
     }
 }
@@ -0,0 +1,43 @@
+package org.example.controller;
+
+import org.example.service.DashboardService;
+import org.example.service.VersionesDatos;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * Controller REST con los datos iniciales de la página de administración.
+ * Sustituye las seis peticiones de arranque de app.js por una sola.
+ */
+@RestController
+@RequestMapping("/api/dashboard")
+@CrossOrigin(origins = "*") // Permite peticiones desde cualquier origen (para desarrollo)
+public class DashboardController {
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private ConfigController configController;
+
+    @Autowired
+    private VersionesDatos versionesDatos;
+
+    /**
+     * GET /api/dashboard
+     * Devuelve configuración, personas, ranking, partidas activas, primera página de
+     * partidas finalizadas y estadísticas. Responde 304 si no ha cambiado nada.
+     */
+    @GetMapping
+    public ResponseEntity<DashboardService.DashboardDTO> obtener(WebRequest request) {
+        if (request.checkNotModified(versionesDatos.etagCombinado(), versionesDatos.ultimaModificacionCombinada())) {
+            return null;
+        }
+        DashboardService.DashboardDTO dashboard = dashboardService.obtener();
+        dashboard.setConfig(configController.configuracionPublica());
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(dashboard);
+    }
+}
@@ -0,0 +1,30 @@
+package org.example.controller;
+
+import org.example.service.CanalEnVivo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Controller del canal de eventos en directo (Server-Sent Events).
+ */
+@RestController
+@RequestMapping("/api/eventos")
+@CrossOrigin(origins = "*") // Permite peticiones desde cualquier origen (para desarrollo)
+public class EventosController {
+
+    @Autowired
+    private CanalEnVivo canalEnVivo;
+
+    /**
+     * GET /api/eventos
+     * Stream SSE con dos tipos de evento:
+     * - "partida": {tipo, partidaId, partida (resumen), estadisticas}
+     * - "ranking": {tipo, personaId, jugador {id, nom, victories}, posicion, estadisticas}
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter suscribir() {
+        return canalEnVivo.suscribir();
+    }
+}
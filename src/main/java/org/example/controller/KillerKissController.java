@@ -1,11 +1,24 @@
 package org.example.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.example.KillerKiss;
+import org.example.dto.FormatoDatos;
+import org.example.dto.PaginaDTO;
+import org.example.repository.KillerKissRepository.ResumenPartida;
+import org.example.service.EmailOutboxService;
+import org.example.service.ExportacionDatos;
 import org.example.service.KillerKissService;
+import org.example.service.MotorPartida;
+import org.example.service.VersionesDatos;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Map;
@@ -22,34 +35,114 @@ public class KillerKissController {
     @Autowired
     private KillerKissService partidaService;
 
+    @Autowired
+    private EmailOutboxService emailOutboxService;
+
+    @Autowired
+    private MotorPartida motorPartida;
+
+    @Autowired
+    private VersionesDatos versionesDatos;
+
+    @Autowired
+    private ExportacionDatos exportacionDatos;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     /**
      * GET /api/partidas
-     * Obtiene todas las partidas.
+     * Obtiene el resumen de todas las partidas (sin participantes; el detalle está en /api/partidas/{id}).
      */
     @GetMapping
-    public ResponseEntity<List<KillerKiss>> listarTodas() {
-        List<KillerKiss> partidas = partidaService.listarTodas();
-        return ResponseEntity.ok(partidas);
+    public ResponseEntity<List<ResumenPartida>> listarTodas(WebRequest request) {
+        if (noModificado(request)) {
+            return null;
+        }
+        List<ResumenPartida> partidas = partidaService.listarTodas();
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(partidas);
     }
 
     /**
      * GET /api/partidas/activas
-     * Obtiene solo las partidas activas.
+     * Obtiene el resumen de las partidas activas.
      */
     @GetMapping("/activas")
-    public ResponseEntity<List<KillerKiss>> listarActivas() {
-        List<KillerKiss> partidas = partidaService.listarActivas();
-        return ResponseEntity.ok(partidas);
+    public ResponseEntity<List<ResumenPartida>> listarActivas(WebRequest request) {
+        if (noModificado(request)) {
+            return null;
+        }
+        List<ResumenPartida> partidas = partidaService.listarActivas();
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(partidas);
     }
 
     /**
      * GET /api/partidas/finalizadas
-     * Obtiene solo las partidas finalizadas.
+     * Obtiene el resumen de las partidas finalizadas.
      */
     @GetMapping("/finalizadas")
-    public ResponseEntity<List<KillerKiss>> listarFinalizadas() {
-        List<KillerKiss> partidas = partidaService.listarFinalizadas();
-        return ResponseEntity.ok(partidas);
+    public ResponseEntity<List<ResumenPartida>> listarFinalizadas(WebRequest request) {
+        if (noModificado(request)) {
+            return null;
+        }
+        List<ResumenPartida> partidas = partidaService.listarFinalizadas();
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(partidas);
+    }
+
+    /**
+     * GET /api/partidas/pagina?estado=finalizadas&orden=fechaCreacion&cursor=...&limite=50
+     * Obtiene una página de partidas paginada por cursor.
+     * estado: activas | finalizadas | todas (por defecto). orden: id (por defecto) | fechaCreacion.
+     */
+    @GetMapping("/pagina")
+    public ResponseEntity<?> listarPagina(@RequestParam(name = "estado", required = false) String estado,
+                                          @RequestParam(name = "orden", required = false) String orden,
+                                          @RequestParam(name = "cursor", required = false) String cursor,
+                                          @RequestParam(name = "limite", required = false) Integer limite,
+                                          WebRequest request) {
+        try {
+            if (noModificado(request)) {
+                return null;
+            }
+            PaginaDTO<ResumenPartida> pagina = partidaService.listarPagina(estado, orden, cursor, limite);
+            return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(pagina);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * GET /api/partidas/exportar?formato=csv|ndjson
+     * Descarga el historial de todas las partidas con ganador y jugadores (en el orden del anillo).
+     * CSV por defecto. Se escribe mientras se lee de la base de datos, sin cargarlas todas en memoria.
+     * 429 si ya hay una exportación en curso (exportacion.simultaneas).
+     */
+    @GetMapping("/exportar")
+    public ResponseEntity<StreamingResponseBody> exportar(@RequestParam(name = "formato", required = false) String formato) {
+        FormatoDatos formatoDatos;
+        try {
+            formatoDatos = FormatoDatos.desde(formato, null);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON)
+                    .body(salida -> objectMapper.writeValue(salida, new ErrorResponse(e.getMessage())));
+        }
+        if (!exportacionDatos.reservar()) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).contentType(MediaType.APPLICATION_JSON)
+                    .header(HttpHeaders.RETRY_AFTER, "30")
+                    .body(salida -> objectMapper.writeValue(salida,
+                            new ErrorResponse("Ya hay una exportación en curso, inténtalo más tarde")));
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(formatoDatos.getTipoContenido() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"partidas." + formatoDatos.name().toLowerCase() + "\"")
+                .body(salida -> {
+                    try {
+                        exportacionDatos.exportarPartidas(salida, formatoDatos);
+                    } finally {
+                        exportacionDatos.liberar();
+                    }
+                });
     }
 
     /**
@@ -68,9 +161,12 @@ public class KillerKissController {
      * Obtiene estadísticas generales.
      */
     @GetMapping("/estadisticas")
-    public ResponseEntity<KillerKissService.EstadisticasDTO> obtenerEstadisticas() {
+    public ResponseEntity<KillerKissService.EstadisticasDTO> obtenerEstadisticas(WebRequest request) {
+        if (request.checkNotModified(versionesDatos.etagCombinado(), versionesDatos.ultimaModificacionCombinada())) {
+            return null;
+        }
         KillerKissService.EstadisticasDTO stats = partidaService.obtenerEstadisticas();
-        return ResponseEntity.ok(stats);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(stats);
     }
 
     /**
@@ -78,11 +174,13 @@ public class KillerKissController {
      * POST /api/partidas
      * Crea una nueva partida.
      * Body JSON: {"nom":"Partida 1","personas":[{"id":1},{"id":2}]}
+     * idioma (es | ca) se usa para los emails cuando se envían desde el servidor.
      */
     @PostMapping
-    public ResponseEntity<?> crear(@RequestBody KillerKiss partida) {
+    public ResponseEntity<?> crear(@RequestBody KillerKiss partida,
+                                   @RequestParam(name = "idioma", defaultValue = "es") String idioma) {
         try {
-            KillerKiss partidaCreada = partidaService.crear(partida);
+            KillerKiss partidaCreada = partidaService.crear(partida, idioma);
             return ResponseEntity.status(HttpStatus.CREATED).body(partidaCreada);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
@@ -92,6 +190,25 @@ public class KillerKissController {
         }
     }
 
+    /**
+     * POST /api/partidas/lote
+     * Crea varias partidas en una sola transacción (todas o ninguna).
+     * Body JSON: [{"nom":"Grupo A","personas":[{"id":1},{"id":2}]},{"nom":"Grupo B","personas":[...]}]
+     */
+    @PostMapping("/lote")
+    public ResponseEntity<?> crearLote(@RequestBody List<KillerKiss> partidas,
+                                       @RequestParam(name = "idioma", defaultValue = "es") String idioma) {
+        try {
+            List<KillerKiss> creadas = partidaService.crearLote(partidas, idioma);
+            return ResponseEntity.status(HttpStatus.CREATED).body(creadas);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ErrorResponse("Error al crear partidas: " + e.getMessage()));
+        }
+    }
+
     /**
      * PUT /api/partidas/{id}/finalizar
      * Finaliza una partida y declara un ganador.
@@ -140,6 +257,72 @@ public class KillerKissController {
         }
     }
 
+    /**
+     * POST /api/partidas/{id}/eliminaciones
+     * Registra que un jugador ha eliminado a su objetivo; pasa a perseguir al objetivo de su víctima.
+     * Si solo queda un jugador, la partida se finaliza con él como ganador.
+     * Body JSON: {"cazadorId": 5}
+     */
+    @PostMapping("/{id}/eliminaciones")
+    public ResponseEntity<?> registrarEliminacion(@PathVariable(name = "id") Long id, @RequestBody Map<String, Long> body) {
+        try {
+            Long cazadorId = body.get("cazadorId");
+            if (cazadorId == null) {
+                return ResponseEntity.badRequest().body(new ErrorResponse("El campo 'cazadorId' es obligatorio"));
+            }
+            MotorPartida.EliminacionDTO eliminacion = motorPartida.eliminar(id, cazadorId);
+            return ResponseEntity.status(HttpStatus.CREATED).body(eliminacion);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new ErrorResponse(e.getMessage()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * GET /api/partidas/{id}/objetivo/{personaId}
+     * Devuelve el objetivo actual de un jugador vivo.
+     */
+    @GetMapping("/{id}/objetivo/{personaId}")
+    public ResponseEntity<?> obtenerObjetivo(@PathVariable(name = "id") Long id,
+                                             @PathVariable(name = "personaId") Long personaId) {
+        try {
+            return ResponseEntity.ok(motorPartida.obtenerObjetivo(id, personaId));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new ErrorResponse(e.getMessage()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * GET /api/partidas/{id}/anillo
+     * Estado del anillo de una partida activa (jugadores vivos, eliminaciones) y comprobación de integridad.
+     */
+    @GetMapping("/{id}/anillo")
+    public ResponseEntity<?> obtenerAnillo(@PathVariable(name = "id") Long id) {
+        try {
+            return ResponseEntity.ok(motorPartida.obtenerEstado(id));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new ErrorResponse(e.getMessage()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * GET /api/partidas/{id}/envio
+     * Progreso del envío de emails desde el servidor (pendientes, enviados y fallidos).
+     */
+    @GetMapping("/{id}/envio")
+    public ResponseEntity<EmailOutboxService.ProgresoEnvioDTO> progresoEnvio(@PathVariable(name = "id") Long id) {
+        EmailOutboxService.ProgresoEnvioDTO progreso = emailOutboxService.obtenerProgreso(id);
+        if (progreso.getTotal() == 0) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(progreso);
+    }
+
     /**
      * DELETE /api/partidas/{id}
      * Elimina una partida.
@@ -157,6 +340,16 @@ public class KillerKissController {
         }
     }
 
+    /**
+     * Petición condicional: true si el cliente ya tiene la versión actual de las partidas
+     * (la respuesta pasa a ser 304 sin cuerpo). Si no, deja puestos ETag y Last-Modified.
+     */
+    private boolean noModificado(WebRequest request) {
+        return request.checkNotModified(
+                versionesDatos.etag(VersionesDatos.Recurso.PARTIDAS),
+                versionesDatos.ultimaModificacion(VersionesDatos.Recurso.PARTIDAS));
+    }
+
     /**
      * Clase interna para respuestas de error.
      */
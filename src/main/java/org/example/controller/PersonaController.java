@@ -1,12 +1,25 @@
 package org.example.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.example.Persona;
+import org.example.dto.FormatoDatos;
+import org.example.dto.ImportacionDTO;
+import org.example.dto.PaginaDTO;
+import org.example.service.ExportacionDatos;
+import org.example.service.ImportacionPersonas;
 import org.example.service.PersonaService;
+import org.example.service.VersionesDatos;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.util.List;
 
 /**
@@ -21,14 +34,50 @@ public class PersonaController {
     @Autowired
     private PersonaService personaService;
 
+    @Autowired
+    private VersionesDatos versionesDatos;
+
+    @Autowired
+    private ImportacionPersonas importacionPersonas;
+
+    @Autowired
+    private ExportacionDatos exportacionDatos;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     /**
      * GET /api/personas
      * Obtiene todas las personas.
      */
     @GetMapping
-    public ResponseEntity<List<Persona>> listarTodas() {
+    public ResponseEntity<List<Persona>> listarTodas(WebRequest request) {
+        if (noModificado(request)) {
+            return null;
+        }
         List<Persona> personas = personaService.listarTodas();
-        return ResponseEntity.ok(personas);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(personas);
+    }
+
+    /**
+     * GET /api/personas/pagina?orden=victories&cursor=...&limite=50
+     * Obtiene una página de personas paginada por cursor.
+     * orden: id (por defecto) | victories.
+     */
+    @GetMapping("/pagina")
+    public ResponseEntity<?> listarPagina(@RequestParam(name = "orden", required = false) String orden,
+                                          @RequestParam(name = "cursor", required = false) String cursor,
+                                          @RequestParam(name = "limite", required = false) Integer limite,
+                                          WebRequest request) {
+        try {
+            if (noModificado(request)) {
+                return null;
+            }
+            PaginaDTO<Persona> pagina = personaService.listarPagina(orden, cursor, limite);
+            return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(pagina);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
     }
 
     /**
@@ -43,13 +92,30 @@ public class PersonaController {
     }
 
     /**
-     * GET /api/personas/ranking
-     * Obtiene el ranking de personas ordenadas por victorias.
+     * GET /api/personas/ranking?limite=10
+     * Obtiene el ranking de personas ordenadas por victorias (limite opcional).
      */
     @GetMapping("/ranking")
-    public ResponseEntity<List<Persona>> obtenerRanking() {
-        List<Persona> ranking = personaService.obtenerRanking();
-        return ResponseEntity.ok(ranking);
+    public ResponseEntity<List<PersonaService.JugadorRankingDTO>> obtenerRanking(@RequestParam(name = "limite", required = false) Integer limite,
+                                                        WebRequest request) {
+        if (noModificado(request)) {
+            return null;
+        }
+        List<PersonaService.JugadorRankingDTO> ranking = personaService.obtenerRanking(limite);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(ranking);
+    }
+
+    /**
+     * GET /api/personas/{id}/posicion
+     * Obtiene la posición de una persona en el ranking.
+     */
+    @GetMapping("/{id}/posicion")
+    public ResponseEntity<?> obtenerPosicion(@PathVariable(name = "id") Long id) {
+        try {
+            return ResponseEntity.ok(personaService.obtenerPosicion(id));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ErrorResponse(e.getMessage()));
+        }
     }
 
     /**
@@ -70,6 +136,63 @@ public class PersonaController {
         }
     }
 
+    /**
+     * POST /api/personas/importar?formato=csv|ndjson
+     * Crea muchas personas a la vez. El formato se deduce del Content-Type si no se indica.
+     * CSV con cabecera: nom,mail (otras columnas se ignoran)
+     * NDJSON: {"nom":"Juan","mail":"juan@mail.com"} en cada línea
+     * Las filas válidas se guardan aunque otras fallen; la respuesta indica el error de cada
+     * fila rechazada (email repetido, campos vacíos...).
+     */
+    @PostMapping("/importar")
+    public ResponseEntity<?> importar(InputStream cuerpo,
+                                      @RequestParam(name = "formato", required = false) String formato,
+                                      @RequestHeader(name = HttpHeaders.CONTENT_TYPE, required = false) String tipoContenido) {
+        try {
+            ImportacionDTO resultado = importacionPersonas.importar(cuerpo, FormatoDatos.desde(formato, tipoContenido));
+            return ResponseEntity.ok(resultado);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ErrorResponse("Error al importar personas: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * GET /api/personas/exportar?formato=csv|ndjson
+     * Descarga todas las personas (id, nom, mail, victories). CSV por defecto.
+     * Se escribe mientras se lee de la base de datos, sin cargarlas todas en memoria.
+     * 429 si ya hay una exportación en curso (exportacion.simultaneas).
+     */
+    @GetMapping("/exportar")
+    public ResponseEntity<StreamingResponseBody> exportar(@RequestParam(name = "formato", required = false) String formato) {
+        FormatoDatos formatoDatos;
+        try {
+            formatoDatos = FormatoDatos.desde(formato, null);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON)
+                    .body(salida -> objectMapper.writeValue(salida, new ErrorResponse(e.getMessage())));
+        }
+        if (!exportacionDatos.reservar()) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).contentType(MediaType.APPLICATION_JSON)
+                    .header(HttpHeaders.RETRY_AFTER, "30")
+                    .body(salida -> objectMapper.writeValue(salida,
+                            new ErrorResponse("Ya hay una exportación en curso, inténtalo más tarde")));
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(formatoDatos.getTipoContenido() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"personas." + formatoDatos.name().toLowerCase() + "\"")
+                .body(salida -> {
+                    try {
+                        exportacionDatos.exportarPersonas(salida, formatoDatos);
+                    } finally {
+                        exportacionDatos.liberar();
+                    }
+                });
+    }
+
     /**
      * PUT /api/personas/{id}
      * Actualiza una persona existente.
@@ -111,6 +234,16 @@ public class PersonaController {
         }
     }
 
+    /**
+     * Petición condicional: true si el cliente ya tiene la versión actual de las personas
+     * (la respuesta pasa a ser 304 sin cuerpo). Si no, deja puestos ETag y Last-Modified.
+     */
+    private boolean noModificado(WebRequest request) {
+        return request.checkNotModified(
+                versionesDatos.etag(VersionesDatos.Recurso.PERSONAS),
+                versionesDatos.ultimaModificacion(VersionesDatos.Recurso.PERSONAS));
+    }
+
     /**
      * Clase interna para respuestas de error.
      */
@@ -0,0 +1,72 @@
+package org.example.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CSV mínimo (RFC 4180) para importar y exportar: separador coma, comillas dobles y ""
+ * para una comilla dentro de un campo. Cada registro ocupa una línea: los campos con
+ * saltos de línea no se admiten al leer (nombres y emails no los tienen).
+ */
+public final class Csv {
+
+    private Csv() {
+    }
+
+    /**
+     * Separa una línea en campos.
+     * Lanza IllegalArgumentException si hay comillas sin cerrar o texto después de cerrarlas.
+     */
+    public static List<String> leer(String linea) {
+        List<String> campos = new ArrayList<>();
+        StringBuilder campo = new StringBuilder();
+        int i = 0;
+        while (true) {
+            if (i < linea.length() && linea.charAt(i) == '"') {
+                i++;
+                while (true) {
+                    if (i >= linea.length()) {
+                        throw new IllegalArgumentException("Comillas sin cerrar");
+                    }
+                    char c = linea.charAt(i++);
+                    if (c != '"') {
+                        campo.append(c);
+                    } else if (i < linea.length() && linea.charAt(i) == '"') {
+                        campo.append('"');
+                        i++;
+                    } else {
+                        break;
+                    }
+                }
+                if (i < linea.length() && linea.charAt(i) != ',') {
+                    throw new IllegalArgumentException("Texto después de las comillas de cierre");
+                }
+            } else {
+                while (i < linea.length() && linea.charAt(i) != ',') {
+                    campo.append(linea.charAt(i++));
+                }
+            }
+            campos.add(campo.toString());
+            campo.setLength(0);
+            if (i >= linea.length()) {
+                return campos;
+            }
+            i++; // la coma
+        }
+    }
+
+    /**
+     * Campo listo para escribir: entre comillas si hace falta. Vacío también va entre
+     * comillas para que COPY no lo lea como NULL; null se escribe vacío.
+     */
+    public static String campo(String valor) {
+        if (valor == null) {
+            return "";
+        }
+        if (valor.isEmpty() || valor.startsWith("\\") || valor.indexOf(',') >= 0 || valor.indexOf('"') >= 0
+                || valor.indexOf('\n') >= 0 || valor.indexOf('\r') >= 0) {
+            return '"' + valor.replace("\"", "\"\"") + '"';
+        }
+        return valor;
+    }
+}
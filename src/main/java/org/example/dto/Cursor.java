@@ -0,0 +1,98 @@
+package org.example.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Cursor opaco para paginación keyset.
+ * Guarda el orden con el que se generó, el valor de la columna de orden y el ID
+ * de la última fila devuelta. Se serializa en Base64 URL-safe para que el cliente
+ * no dependa de su formato.
+ * Con el orden "fechaCreacion" el valor es la fecha ISO, o vacío si la fila no tenía fecha.
+ */
+public class Cursor {
+
+    public static final int LIMITE_POR_DEFECTO = 50;
+    public static final int LIMITE_MAXIMO = 200;
+
+    public static final String ORDEN_FECHA = "fechaCreacion";
+
+    private final String orden;
+    private final String valor;
+    private final long id;
+
+    public Cursor(String orden, String valor, long id) {
+        this.orden = orden;
+        this.valor = valor;
+        this.id = id;
+    }
+
+    /**
+     * Cursor del orden por fecha de creación; la fecha puede ser null.
+     */
+    public static Cursor deFecha(LocalDateTime fecha, long id) {
+        return new Cursor(ORDEN_FECHA, fecha == null ? "" : fecha.toString(), id);
+    }
+
+    /**
+     * Decodifica un cursor recibido del cliente.
+     * Lanza IllegalArgumentException si está corrupto o se generó con otro orden.
+     */
+    public static Cursor decodificar(String token, String ordenEsperado) {
+        Cursor cursor;
+        try {
+            String texto = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] partes = texto.split("\\|", 3);
+            if (partes.length != 3) {
+                throw new IllegalArgumentException();
+            }
+            cursor = new Cursor(partes[0], partes[1], Long.parseLong(partes[2]));
+            if (cursor.orden.equals(ORDEN_FECHA)) {
+                cursor.getFecha();
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Cursor no válido");
+        }
+
+        if (!cursor.orden.equals(ordenEsperado)) {
+            throw new IllegalArgumentException("El cursor no corresponde al orden '" + ordenEsperado + "'");
+        }
+        return cursor;
+    }
+
+    /**
+     * Normaliza el tamaño de página pedido al rango [1, LIMITE_MAXIMO].
+     */
+    public static int normalizarLimite(Integer limite) {
+        if (limite == null) {
+            return LIMITE_POR_DEFECTO;
+        }
+        return Math.max(1, Math.min(limite, LIMITE_MAXIMO));
+    }
+
+    public String codificar() {
+        String texto = orden + "|" + valor + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(texto.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public String getOrden() {
+        return orden;
+    }
+
+    public String getValor() {
+        return valor;
+    }
+
+    /**
+     * El valor como fecha (orden "fechaCreacion"); null si la fila no tenía fecha.
+     */
+    public LocalDateTime getFecha() {
+        return valor.isEmpty() ? null : LocalDateTime.parse(valor);
+    }
+
+    public long getId() {
+        return id;
+    }
+}
@@ -0,0 +1,40 @@
+package org.example.dto;
+
+/**
+ * Formatos de importación y exportación: CSV con cabecera o NDJSON (un objeto JSON por línea).
+ */
+public enum FormatoDatos {
+
+    CSV("text/csv"),
+    NDJSON("application/x-ndjson");
+
+    private final String tipoContenido;
+
+    FormatoDatos(String tipoContenido) {
+        this.tipoContenido = tipoContenido;
+    }
+
+    public String getTipoContenido() {
+        return tipoContenido;
+    }
+
+    /**
+     * El parámetro formato (csv | ndjson) manda; sin él se deduce del Content-Type y,
+     * si tampoco dice nada, CSV.
+     * Lanza IllegalArgumentException con un formato desconocido.
+     */
+    public static FormatoDatos desde(String formato, String tipoContenido) {
+        if (formato != null && !formato.isBlank()) {
+            for (FormatoDatos f : values()) {
+                if (f.name().equalsIgnoreCase(formato.trim())) {
+                    return f;
+                }
+            }
+            throw new IllegalArgumentException("Formato no válido: " + formato + " (csv | ndjson)");
+        }
+        if (tipoContenido != null && (tipoContenido.contains("ndjson") || tipoContenido.contains("json"))) {
+            return NDJSON;
+        }
+        return CSV;
+    }
+}
@@ -0,0 +1,89 @@
+package org.example.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resultado de una importación: cuántas filas se han leído y creado, y el error de cada fila
+ * rechazada (como mucho MAXIMO_ERRORES; totalErrores las cuenta todas).
+ */
+public class ImportacionDTO {
+
+    public static final int MAXIMO_ERRORES = 1000;
+
+    private int leidas;
+    private int creadas;
+    private int duplicadas;
+    private int totalErrores;
+    private final List<ErrorFila> errores = new ArrayList<>();
+
+    public void leida() {
+        leidas++;
+    }
+
+    public void creadas(int n) {
+        creadas += n;
+    }
+
+    /**
+     * Fila rechazada. Las duplicadas (email ya registrado o repetido en el archivo) también
+     * cuentan como error, además de en duplicadas.
+     */
+    public void error(long fila, String mail, String error, boolean duplicada) {
+        totalErrores++;
+        if (duplicada) {
+            duplicadas++;
+        }
+        if (errores.size() < MAXIMO_ERRORES) {
+            errores.add(new ErrorFila(fila, mail, error));
+        }
+    }
+
+    public int getLeidas() {
+        return leidas;
+    }
+
+    public int getCreadas() {
+        return creadas;
+    }
+
+    public int getDuplicadas() {
+        return duplicadas;
+    }
+
+    public int getTotalErrores() {
+        return totalErrores;
+    }
+
+    public List<ErrorFila> getErrores() {
+        return errores;
+    }
+
+    /**
+     * Error de una fila. fila es el número de línea del archivo (la cabecera CSV es la 1).
+     */
+    public static class ErrorFila {
+
+        private final long fila;
+        private final String mail;
+        private final String error;
+
+        public ErrorFila(long fila, String mail, String error) {
+            this.fila = fila;
+            this.mail = mail;
+            this.error = error;
+        }
+
+        public long getFila() {
+            return fila;
+        }
+
+        public String getMail() {
+            return mail;
+        }
+
+        public String getError() {
+            return error;
+        }
+    }
+}
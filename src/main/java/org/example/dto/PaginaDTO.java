@@ -0,0 +1,32 @@
+package org.example.dto;
+
+import java.util.List;
+
+/**
+ * Página de resultados para los listados paginados por cursor (keyset).
+ * El cliente pide la siguiente página devolviendo {@code siguienteCursor} tal cual.
+ */
+public class PaginaDTO<T> {
+
+    private List<T> items;
+    private String siguienteCursor;
+    private boolean hayMas;
+
+    public PaginaDTO(List<T> items, String siguienteCursor) {
+        this.items = items;
+        this.siguienteCursor = siguienteCursor;
+        this.hayMas = siguienteCursor != null;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public String getSiguienteCursor() {
+        return siguienteCursor;
+    }
+
+    public boolean isHayMas() {
+        return hayMas;
+    }
+}
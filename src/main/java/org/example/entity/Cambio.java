@@ -0,0 +1,90 @@
+package org.example.entity;
+
+import jakarta.persistence.*;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entrada del registro de cambios (/api/changes).
+ * La secuencia la asigna RegistroCambios dentro de la transacción del cambio, así que
+ * crece en el mismo orden en que se confirman las transacciones.
+ *
+ * Las entradas nunca se modifican: isNew() siempre es true para que save() haga un INSERT
+ * directamente, sin el SELECT previo de merge() que haría por tener el ID asignado.
+ */
+@Entity
+@Table(name = "cambios", indexes = {
+    @Index(name = "idx_cambios_fecha", columnList = "fecha")
+})
+@NoArgsConstructor
+public class Cambio implements Persistable<Long> {
+
+    public enum Recurso {
+        PERSONA,
+        PARTIDA
+    }
+
+    public enum Operacion {
+        INSERT,
+        UPDATE,
+        DELETE
+    }
+
+    @Id
+    private Long secuencia;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Recurso recurso;
+
+    @Column(name = "entidad_id", nullable = false)
+    private Long entidadId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Operacion operacion;
+
+    @Column(nullable = false)
+    private LocalDateTime fecha;
+
+    public Cambio(Long secuencia, Recurso recurso, Long entidadId, Operacion operacion) {
+        this.secuencia = secuencia;
+        this.recurso = recurso;
+        this.entidadId = entidadId;
+        this.operacion = operacion;
+        this.fecha = LocalDateTime.now();
+    }
+
+    @Override
+    public Long getId() {
+        return secuencia;
+    }
+
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+
+    // Getters
+    public Long getSecuencia() {
+        return secuencia;
+    }
+
+    public Recurso getRecurso() {
+        return recurso;
+    }
+
+    public Long getEntidadId() {
+        return entidadId;
+    }
+
+    public Operacion getOperacion() {
+        return operacion;
+    }
+
+    public LocalDateTime getFecha() {
+        return fecha;
+    }
+}
@@ -12,8 +12,13 @@ import java.time.LocalDate;
 @AllArgsConstructor
 public class EmailCounter {
     
+    /**
+     * Las filas solo se crean con el upsert nativo de EmailCounterRepository, que toma el ID
+     * de la secuencia uno a uno (una fila por día: no hay lotes que agrupar).
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "email_counter_seq")
+    @SequenceGenerator(name = "email_counter_seq", sequenceName = "email_counter_seq", allocationSize = 1)
     private Long id;
     
     @Column(nullable = false, unique = true)
@@ -21,6 +26,13 @@ public class EmailCounter {
     
     @Column(nullable = false)
     private Integer emailsEnviados = 0;
+
+    /**
+     * Techo de emails ya concedidos en memoria para el día (reserva anticipada).
+     * Tras un reinicio se parte de este valor, así nunca se concede más cuota de la real.
+     */
+    @Column(name = "emails_reservados")
+    private Integer emailsReservados;
     
     public EmailCounter(LocalDate fecha) {
         this.fecha = fecha;
@@ -55,4 +67,12 @@ public class EmailCounter {
     public void setEmailsEnviados(Integer emailsEnviados) {
         this.emailsEnviados = emailsEnviados;
     }
+
+    public Integer getEmailsReservados() {
+        return emailsReservados;
+    }
+
+    public void setEmailsReservados(Integer emailsReservados) {
+        this.emailsReservados = emailsReservados;
+    }
 }
@@ -0,0 +1,167 @@
+package org.example.entity;
+
+import jakarta.persistence.*;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Email pendiente de enviar (patrón outbox).
+ * Se escribe en la misma transacción que crea la partida y lo envían los workers
+ * de EmailOutboxService, así el envío no depende de que el navegador siga abierto.
+ */
+@Entity
+@Table(name = "email_outbox", indexes = {
+    @Index(name = "idx_email_outbox_estado", columnList = "estado, proximo_intento"),
+    @Index(name = "idx_email_outbox_partida", columnList = "partida_id")
+})
+@NoArgsConstructor
+public class EmailOutbox {
+
+    public enum Estado {
+        PENDIENTE,
+        ENVIANDO,
+        ENVIADO,
+        FALLIDO
+    }
+
+    /** Secuencia pooled: los emails de una partida se insertan en lotes. */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "email_outbox_seq")
+    @SequenceGenerator(name = "email_outbox_seq", sequenceName = "email_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "partida_id", nullable = false)
+    private Long partidaId;
+
+    @Column(nullable = false)
+    private String destinatario;
+
+    @Column(nullable = false)
+    private String nombre;
+
+    @Column(nullable = false)
+    private String asunto;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String html;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Estado estado = Estado.PENDIENTE;
+
+    @Column(nullable = false)
+    private int intentos = 0;
+
+    @Column(name = "proximo_intento", nullable = false)
+    private LocalDateTime proximoIntento;
+
+    @Column(name = "ultimo_error", length = 500)
+    private String ultimoError;
+
+    @Column(name = "fecha_creacion", nullable = false)
+    private LocalDateTime fechaCreacion;
+
+    @Column(name = "fecha_envio")
+    private LocalDateTime fechaEnvio;
+
+    public EmailOutbox(Long partidaId, String destinatario, String nombre, String asunto, String html) {
+        this.partidaId = partidaId;
+        this.destinatario = destinatario;
+        this.nombre = nombre;
+        this.asunto = asunto;
+        this.html = html;
+        this.fechaCreacion = LocalDateTime.now();
+        this.proximoIntento = this.fechaCreacion;
+    }
+
+    /**
+     * Lo reclama un worker: queda en ENVIANDO hasta guardar el resultado o, si el worker
+     * no llega a guardarlo, hasta que vence el plazo y vuelve a la cola.
+     */
+    public void reclamar(LocalDateTime plazo) {
+        this.estado = Estado.ENVIANDO;
+        this.proximoIntento = plazo;
+    }
+
+    /**
+     * Marca el email como enviado.
+     */
+    public void marcarEnviado() {
+        this.estado = Estado.ENVIADO;
+        this.fechaEnvio = LocalDateTime.now();
+        this.ultimoError = null;
+    }
+
+    /**
+     * Registra un intento fallido: vuelve a PENDIENTE para reintentar más tarde
+     * o queda como FALLIDO si ya no quedan intentos.
+     */
+    public void registrarFallo(String error, LocalDateTime proximoIntento, boolean definitivo) {
+        this.intentos++;
+        this.ultimoError = error != null && error.length() > 500 ? error.substring(0, 500) : error;
+        this.estado = definitivo ? Estado.FALLIDO : Estado.PENDIENTE;
+        this.proximoIntento = proximoIntento;
+    }
+
+    /**
+     * Devuelve el email a la cola sin contar un intento (por ejemplo, sin cuota diaria).
+     */
+    public void aplazar(LocalDateTime proximoIntento) {
+        this.estado = Estado.PENDIENTE;
+        this.proximoIntento = proximoIntento;
+    }
+
+    // Getters y Setters
+    public Long getId() {
+        return id;
+    }
+
+    public Long getPartidaId() {
+        return partidaId;
+    }
+
+    public String getDestinatario() {
+        return destinatario;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public String getAsunto() {
+        return asunto;
+    }
+
+    public String getHtml() {
+        return html;
+    }
+
+    public Estado getEstado() {
+        return estado;
+    }
+
+    public void setEstado(Estado estado) {
+        this.estado = estado;
+    }
+
+    public int getIntentos() {
+        return intentos;
+    }
+
+    public LocalDateTime getProximoIntento() {
+        return proximoIntento;
+    }
+
+    public String getUltimoError() {
+        return ultimoError;
+    }
+
+    public LocalDateTime getFechaCreacion() {
+        return fechaCreacion;
+    }
+
+    public LocalDateTime getFechaEnvio() {
+        return fechaEnvio;
+    }
+}
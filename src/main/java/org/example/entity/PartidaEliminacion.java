@@ -0,0 +1,82 @@
+package org.example.entity;
+
+import jakarta.persistence.*;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Una eliminación dentro de una partida: el cazador elimina a su víctima y hereda su objetivo.
+ * El estado del anillo se reconstruye aplicando las eliminaciones en orden sobre el orden inicial
+ * de participantes. Las restricciones únicas impiden registrar dos veces el mismo paso o la misma víctima.
+ */
+@Entity
+@Table(name = "partida_eliminaciones",
+    uniqueConstraints = {
+        @UniqueConstraint(name = "uk_eliminacion_paso", columnNames = {"partida_id", "paso"}),
+        @UniqueConstraint(name = "uk_eliminacion_victima", columnNames = {"partida_id", "victima_id"})
+    })
+@NoArgsConstructor
+public class PartidaEliminacion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "partida_id", nullable = false)
+    private Long partidaId;
+
+    /** Número de la eliminación dentro de la partida, empezando en 1. */
+    @Column(nullable = false)
+    private int paso;
+
+    @Column(name = "cazador_id", nullable = false)
+    private Long cazadorId;
+
+    @Column(name = "victima_id", nullable = false)
+    private Long victimaId;
+
+    @Column(name = "nuevo_objetivo_id", nullable = false)
+    private Long nuevoObjetivoId;
+
+    @Column(nullable = false)
+    private LocalDateTime fecha;
+
+    public PartidaEliminacion(Long partidaId, int paso, Long cazadorId, Long victimaId, Long nuevoObjetivoId) {
+        this.partidaId = partidaId;
+        this.paso = paso;
+        this.cazadorId = cazadorId;
+        this.victimaId = victimaId;
+        this.nuevoObjetivoId = nuevoObjetivoId;
+        this.fecha = LocalDateTime.now();
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public Long getPartidaId() {
+        return partidaId;
+    }
+
+    public int getPaso() {
+        return paso;
+    }
+
+    public Long getCazadorId() {
+        return cazadorId;
+    }
+
+    public Long getVictimaId() {
+        return victimaId;
+    }
+
+    public Long getNuevoObjetivoId() {
+        return nuevoObjetivoId;
+    }
+
+    public LocalDateTime getFecha() {
+        return fecha;
+    }
+}
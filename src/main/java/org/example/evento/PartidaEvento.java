@@ -0,0 +1,51 @@
+package org.example.evento;
+
+/**
+ * Evento de dominio que se publica cuando cambia una partida.
+ * Los listeners lo reciben después del commit (@TransactionalEventListener).
+ */
+public class PartidaEvento {
+
+    public enum Tipo {
+        CREADA,
+        FINALIZADA,
+        ELIMINADA
+    }
+
+    private final Tipo tipo;
+    private final Long partidaId;
+    private final boolean estabaActiva;
+
+    /**
+     * @param estabaActiva si la partida estaba activa justo antes del cambio
+     */
+    public PartidaEvento(Tipo tipo, Long partidaId, boolean estabaActiva) {
+        this.tipo = tipo;
+        this.partidaId = partidaId;
+        this.estabaActiva = estabaActiva;
+    }
+
+    public static PartidaEvento creada(Long partidaId) {
+        return new PartidaEvento(Tipo.CREADA, partidaId, false);
+    }
+
+    public static PartidaEvento finalizada(Long partidaId) {
+        return new PartidaEvento(Tipo.FINALIZADA, partidaId, true);
+    }
+
+    public static PartidaEvento eliminada(Long partidaId, boolean estabaActiva) {
+        return new PartidaEvento(Tipo.ELIMINADA, partidaId, estabaActiva);
+    }
+
+    public Tipo getTipo() {
+        return tipo;
+    }
+
+    public Long getPartidaId() {
+        return partidaId;
+    }
+
+    public boolean isEstabaActiva() {
+        return estabaActiva;
+    }
+}
@@ -0,0 +1,64 @@
+package org.example.evento;
+
+import org.example.Persona;
+
+/**
+ * Evento de dominio que se publica cuando cambia una persona.
+ * Los listeners lo reciben después del commit (@TransactionalEventListener),
+ * así que nunca ven cambios que acaben en rollback.
+ */
+public class PersonaEvento {
+
+    public enum Tipo {
+        CREADA,
+        ACTUALIZADA,
+        ELIMINADA,
+        VICTORIA
+    }
+
+    private final Tipo tipo;
+    private final Long personaId;
+    private final Persona persona;
+
+    /**
+     * @param persona copia del estado tras el cambio (null en ELIMINADA). En VICTORIA lleva las
+     *                victorias ya sumadas, no el incremento: aplicarla dos veces no cuenta doble
+     */
+    public PersonaEvento(Tipo tipo, Long personaId, Persona persona) {
+        this.tipo = tipo;
+        this.personaId = personaId;
+        this.persona = persona;
+    }
+
+    public static PersonaEvento creada(Persona persona) {
+        return new PersonaEvento(Tipo.CREADA, persona.getId(), copia(persona));
+    }
+
+    public static PersonaEvento actualizada(Persona persona) {
+        return new PersonaEvento(Tipo.ACTUALIZADA, persona.getId(), copia(persona));
+    }
+
+    public static PersonaEvento eliminada(Long personaId) {
+        return new PersonaEvento(Tipo.ELIMINADA, personaId, null);
+    }
+
+    public static PersonaEvento victoria(Persona persona) {
+        return new PersonaEvento(Tipo.VICTORIA, persona.getId(), copia(persona));
+    }
+
+    private static Persona copia(Persona persona) {
+        return new Persona(persona.getId(), persona.getNom(), persona.getMail(), persona.getVictories());
+    }
+
+    public Tipo getTipo() {
+        return tipo;
+    }
+
+    public Long getPersonaId() {
+        return personaId;
+    }
+
+    public Persona getPersona() {
+        return persona;
+    }
+}
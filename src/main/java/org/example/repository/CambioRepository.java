@@ -0,0 +1,48 @@
+package org.example.repository;
+
+import org.example.entity.Cambio;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface CambioRepository extends JpaRepository<Cambio, Long> {
+
+    /**
+     * Avanza el contador de cambios. El UPDATE bloquea la fila hasta el commit, de modo que
+     * las transacciones que registran cambios obtienen su secuencia en orden de confirmación.
+     */
+    @Modifying
+    @Query(value = "UPDATE cambios_secuencia SET valor = valor + 1 WHERE id = 1", nativeQuery = true)
+    int avanzarSecuencia();
+
+    /**
+     * Valor actual del contador (último cambio registrado).
+     */
+    @Query(value = "SELECT valor FROM cambios_secuencia WHERE id = 1", nativeQuery = true)
+    long secuenciaActual();
+
+    /**
+     * Cambios posteriores a una secuencia, en orden.
+     */
+    @Query("SELECT c FROM Cambio c WHERE c.secuencia > :desde ORDER BY c.secuencia")
+    List<Cambio> findPosteriores(long desde, Pageable limite);
+
+    /**
+     * Secuencia más antigua que se conserva (null si el registro está vacío).
+     */
+    @Query("SELECT MIN(c.secuencia) FROM Cambio c")
+    Long secuenciaMinima();
+
+    /**
+     * Borra los cambios anteriores a una fecha.
+     */
+    @Modifying
+    @Query("DELETE FROM Cambio c WHERE c.fecha < :limite")
+    int borrarAnteriores(LocalDateTime limite);
+}
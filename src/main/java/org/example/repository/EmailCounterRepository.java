@@ -2,12 +2,26 @@ package org.example.repository;
 
 import org.example.entity.EmailCounter;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.Optional;
 
 @Repository
-public interface EmailCounterRepository extends JpaRepository<EmailCounter, Long> {
+public interface EmailCounterRepository extends JpaRepository<EmailCounter, Long>, GuardadoContador {
     Optional<EmailCounter> findByFecha(LocalDate fecha);
+
+    /**
+     * Ajusta la reserva del día al número real de enviados (al parar la aplicación).
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE email_counter SET " +
+                   "emails_enviados = GREATEST(emails_enviados, :enviados), emails_reservados = :enviados " +
+                   "WHERE fecha = :fecha",
+           nativeQuery = true)
+    int liberarReserva(LocalDate fecha, int enviados);
 }
@@ -0,0 +1,61 @@
+package org.example.repository;
+
+import org.example.entity.EmailOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+
+    /**
+     * Bloquea hasta {@code limite} emails pendientes cuyo reintento ya toca.
+     * SKIP LOCKED permite que varios workers reclamen lotes distintos a la vez.
+     */
+    @Query(value = "SELECT * FROM email_outbox " +
+                   "WHERE estado = 'PENDIENTE' AND proximo_intento <= :ahora " +
+                   "ORDER BY id LIMIT :limite FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<EmailOutbox> reclamarPendientes(LocalDateTime ahora, int limite);
+
+    /**
+     * Devuelve a la cola los emails en ENVIANDO cuyo plazo (proximo_intento) ya ha vencido:
+     * el worker que los reclamó no llegó a guardar el resultado.
+     */
+    @Modifying
+    @Query("UPDATE EmailOutbox e SET e.estado = org.example.entity.EmailOutbox$Estado.PENDIENTE " +
+           "WHERE e.estado = org.example.entity.EmailOutbox$Estado.ENVIANDO AND e.proximoIntento < :ahora")
+    int reencolarCaducados(LocalDateTime ahora);
+
+    /**
+     * Número de emails de una partida agrupados por estado.
+     */
+    @Query("SELECT e.estado AS estado, COUNT(e) AS total FROM EmailOutbox e " +
+           "WHERE e.partidaId = :partidaId GROUP BY e.estado")
+    List<RecuentoEstado> contarPorEstado(Long partidaId);
+
+    /**
+     * Emails de una partida que han fallado definitivamente.
+     */
+    List<EmailOutbox> findByPartidaIdAndEstado(Long partidaId, EmailOutbox.Estado estado);
+
+    /**
+     * Borra los emails de una partida (al eliminarla).
+     */
+    @Modifying
+    @Query("DELETE FROM EmailOutbox e WHERE e.partidaId = :partidaId")
+    int borrarPorPartida(Long partidaId);
+
+    /**
+     * Proyección de contarPorEstado().
+     */
+    interface RecuentoEstado {
+        EmailOutbox.Estado getEstado();
+
+        long getTotal();
+    }
+}
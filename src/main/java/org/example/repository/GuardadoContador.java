@@ -0,0 +1,15 @@
+package org.example.repository;
+
+import java.time.LocalDate;
+
+/**
+ * Upsert del contador diario de emails (fragmento de EmailCounterRepository).
+ */
+public interface GuardadoContador {
+
+    /**
+     * Upsert atómico del contador del día. Nunca baja los valores ya guardados,
+     * así que da igual el orden en que lleguen dos escrituras.
+     */
+    int guardarContador(LocalDate fecha, int enviados, int reservados);
+}
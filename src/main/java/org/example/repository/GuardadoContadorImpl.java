@@ -0,0 +1,48 @@
+package org.example.repository;
+
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+
+/**
+ * Implementación de GuardadoContador; Spring Data la encuentra por el sufijo Impl.
+ *
+ * En PostgreSQL, INSERT ... ON CONFLICT. En otras bases de datos (H2 del perfil loadtest) no
+ * existe ON CONFLICT ... DO UPDATE y se usa MERGE, que hace lo mismo pero sin la garantía de
+ * PostgreSQL frente a dos inserciones simultáneas del primer contador del día.
+ */
+public class GuardadoContadorImpl implements GuardadoContador {
+
+    private static final String ON_CONFLICT =
+            "INSERT INTO email_counter (id, fecha, emails_enviados, emails_reservados) " +
+            "VALUES (nextval('email_counter_seq'), ?, ?, ?) " +
+            "ON CONFLICT (fecha) DO UPDATE SET " +
+            "emails_enviados = GREATEST(email_counter.emails_enviados, EXCLUDED.emails_enviados), " +
+            "emails_reservados = GREATEST(COALESCE(email_counter.emails_reservados, 0), EXCLUDED.emails_reservados)";
+
+    private static final String MERGE =
+            "MERGE INTO email_counter c " +
+            "USING (VALUES (CAST(? AS DATE), CAST(? AS INTEGER), CAST(? AS INTEGER))) AS v (fecha, enviados, reservados) " +
+            "ON c.fecha = v.fecha " +
+            "WHEN MATCHED THEN UPDATE SET " +
+            "emails_enviados = GREATEST(c.emails_enviados, v.enviados), " +
+            "emails_reservados = GREATEST(COALESCE(c.emails_reservados, 0), v.reservados) " +
+            "WHEN NOT MATCHED THEN INSERT (id, fecha, emails_enviados, emails_reservados) " +
+            "VALUES (nextval('email_counter_seq'), v.fecha, v.enviados, v.reservados)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public int guardarContador(LocalDate fecha, int enviados, int reservados) {
+        // La conexión es la de la transacción en curso
+        Boolean postgres = jdbcTemplate.execute((ConnectionCallback<Boolean>) conexion ->
+                conexion.isWrapperFor(PGConnection.class));
+        return jdbcTemplate.update(Boolean.TRUE.equals(postgres) ? ON_CONFLICT : MERGE, fecha, enviados, reservados);
+    }
+}
@@ -0,0 +1,18 @@
+package org.example.repository;
+
+import org.example.KillerKiss;
+
+import java.util.List;
+
+/**
+ * Inserción de muchas partidas a la vez con lotes JDBC (fragmento de KillerKissRepository).
+ */
+public interface InsercionPartidas {
+
+    /**
+     * Inserta las partidas y sus participantes (en el orden de la lista, que es el del anillo)
+     * con un lote para partidas y otro para partida_participantes. Asigna a cada partida su ID.
+     * No pasa por Hibernate: las partidas no quedan en el contexto de persistencia.
+     */
+    void insertarEnLote(List<KillerKiss> partidas);
+}
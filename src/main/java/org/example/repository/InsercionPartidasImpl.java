@@ -0,0 +1,53 @@
+package org.example.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.example.KillerKiss;
+import org.example.Persona;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Implementación de InsercionPartidas; Spring Data la encuentra por el sufijo Impl.
+ */
+public class InsercionPartidasImpl implements InsercionPartidas {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void insertarEnLote(List<KillerKiss> partidas) {
+        if (partidas.isEmpty()) {
+            return;
+        }
+        // Los IDs salen del mismo generador que usa Hibernate (partidas_seq, bloques de 50):
+        // no se repiten con los de save() y cuestan un nextval por cada 50 partidas
+        SharedSessionContractImplementor sesion = entityManager.unwrap(SharedSessionContractImplementor.class);
+        IdentifierGenerator generador = (IdentifierGenerator) sesion.getFactory().getMappingMetamodel()
+                .getEntityDescriptor(KillerKiss.class).getGenerator();
+
+        List<Object[]> filas = new ArrayList<>(partidas.size());
+        List<Object[]> participantes = new ArrayList<>();
+        for (KillerKiss partida : partidas) {
+            partida.setId((Long) generador.generate(sesion, partida));
+            filas.add(new Object[]{partida.getId(), partida.getNom(), partida.isEstat(),
+                    Timestamp.valueOf(partida.getFechaCreacion())});
+            List<Persona> personas = partida.getPersonas();
+            for (int posicion = 0; posicion < personas.size(); posicion++) {
+                participantes.add(new Object[]{partida.getId(), personas.get(posicion).getId(), posicion});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO partidas (id, nom, estat, fecha_creacion) VALUES (?, ?, ?, ?)", filas);
+        jdbcTemplate.batchUpdate("INSERT INTO partida_participantes (partida_id, persona_id, posicion) "
+                + "VALUES (?, ?, ?)", participantes);
+    }
+}
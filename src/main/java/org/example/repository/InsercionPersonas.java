@@ -0,0 +1,18 @@
+package org.example.repository;
+
+import org.example.Persona;
+
+import java.util.List;
+
+/**
+ * Inserción de muchas personas a la vez (fragmento de PersonaRepository).
+ */
+public interface InsercionPersonas {
+
+    /**
+     * Inserta las personas con COPY en PostgreSQL o con un lote JDBC en otras bases de datos.
+     * Asigna a cada persona su ID. No pasa por Hibernate: las personas no quedan en el
+     * contexto de persistencia y no se validan (hay que hacerlo antes).
+     */
+    void insertarEnLote(List<Persona> personas);
+}
@@ -0,0 +1,81 @@
+package org.example.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.example.Persona;
+import org.example.dto.Csv;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Implementación de InsercionPersonas; Spring Data la encuentra por el sufijo Impl.
+ */
+public class InsercionPersonasImpl implements InsercionPersonas {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void insertarEnLote(List<Persona> personas) {
+        if (personas.isEmpty()) {
+            return;
+        }
+        // Mismo generador que Hibernate (personas_seq, bloques de 50), como en InsercionPartidasImpl
+        SharedSessionContractImplementor sesion = entityManager.unwrap(SharedSessionContractImplementor.class);
+        IdentifierGenerator generador = (IdentifierGenerator) sesion.getFactory().getMappingMetamodel()
+                .getEntityDescriptor(Persona.class).getGenerator();
+        for (Persona persona : personas) {
+            persona.setId((Long) generador.generate(sesion, persona));
+        }
+
+        // La conexión es la de la transacción en curso
+        jdbcTemplate.execute((ConnectionCallback<Void>) conexion -> {
+            if (conexion.isWrapperFor(PGConnection.class)) {
+                copiar(conexion.unwrap(PGConnection.class), personas);
+            } else {
+                insertarConLote(personas);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * COPY ... FROM STDIN: todas las filas en un solo flujo, sin una sentencia por fila.
+     */
+    private void copiar(PGConnection conexion, List<Persona> personas) throws SQLException {
+        StringBuilder csv = new StringBuilder(personas.size() * 64);
+        for (Persona persona : personas) {
+            csv.append(persona.getId()).append(',')
+                    .append(Csv.campo(persona.getNom())).append(',')
+                    .append(Csv.campo(persona.getMail())).append(',')
+                    .append(persona.getVictories()).append('\n');
+        }
+        try {
+            conexion.getCopyAPI().copyIn("COPY personas (id, nom, mail, victories) FROM STDIN WITH (FORMAT csv)",
+                    new StringReader(csv.toString()));
+        } catch (IOException e) {
+            throw new SQLException("Error en COPY personas: " + e.getMessage(), e);
+        }
+    }
+
+    private void insertarConLote(List<Persona> personas) {
+        List<Object[]> filas = new ArrayList<>(personas.size());
+        for (Persona persona : personas) {
+            filas.add(new Object[]{persona.getId(), persona.getNom(), persona.getMail(), persona.getVictories()});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO personas (id, nom, mail, victories) VALUES (?, ?, ?, ?)", filas);
+    }
+}
@@ -2,10 +2,15 @@ package org.example.repository;
 
 import org.example.KillerKiss;
 import org.example.Persona;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,35 +26,162 @@ import java.util.Optional;
  * - count() - Cuenta total de partidas
  */
 @Repository
-public interface KillerKissRepository extends JpaRepository<KillerKiss, Long> {
-    
+public interface KillerKissRepository extends JpaRepository<KillerKiss, Long>, InsercionPartidas {
+
     /**
-     * Busca partidas activas (estat = true).
+     * Obtiene todas las partidas con participantes y ganador en una sola consulta.
      */
-    List<KillerKiss> findByEstatTrue();
+    @Override
+    @EntityGraph(KillerKiss.GRAFO_PARTICIPANTES)
+    List<KillerKiss> findAll();
     
     /**
-     * Busca partidas finalizadas (estat = false).
+     * Consulta base de ResumenPartida: columnas de la partida, número de jugadores
+     * (subconsulta COUNT) y nombre del ganador, sin cargar participantes.
      */
-    List<KillerKiss> findByEstatFalse();
+    String SELECT_RESUMEN = "SELECT k.id AS id, k.nom AS nom, k.estat AS estat, " +
+                            "k.fechaCreacion AS fechaCreacion, k.fechaFinalizacion AS fechaFinalizacion, " +
+                            "SIZE(k.personas) AS numJugadores, g.nom AS ganadorNom " +
+                            "FROM KillerKiss k LEFT JOIN k.ganador g ";
+
+    /**
+     * Resumen de todas las partidas, de la más reciente a la más antigua.
+     */
+    @Query(SELECT_RESUMEN + "ORDER BY k.id DESC")
+    List<ResumenPartida> findResumenes();
+
+    /**
+     * Resumen de las partidas activas (estat = true) o finalizadas (estat = false).
+     */
+    @Query(SELECT_RESUMEN + "WHERE k.estat = :estat ORDER BY k.id DESC")
+    List<ResumenPartida> findResumenesByEstat(boolean estat);
+
+    /**
+     * Busca una partida con participantes y ganador ya cargados (vista de detalle).
+     */
+    @EntityGraph(KillerKiss.GRAFO_PARTICIPANTES)
+    Optional<KillerKiss> findConParticipantesById(Long id);
+
+    /**
+     * Obtiene solo el estado de una partida (vacío si no existe).
+     */
+    @Query("SELECT k.estat FROM KillerKiss k WHERE k.id = :id")
+    Optional<Boolean> findEstatById(Long id);
+
+    /**
+     * Como findEstatById, pero bloquea la fila de la partida hasta el final de la transacción:
+     * una finalización o un borrado simultáneos esperan (o se espera a que terminen).
+     */
+    @Query(value = "SELECT estat FROM partidas WHERE id = :id FOR UPDATE", nativeQuery = true)
+    Optional<Boolean> bloquearEstatById(Long id);
+
+    /**
+     * IDs de los participantes de una partida en el orden del anillo, sin cargar las personas.
+     */
+    @Query(value = "SELECT persona_id FROM partida_participantes WHERE partida_id = :partidaId ORDER BY posicion",
+           nativeQuery = true)
+    List<Long> findIdsParticipantes(Long partidaId);
+
+    /**
+     * Finaliza la partida en una sola sentencia, solo si sigue activa y el ganador
+     * está en partida_participantes. Devuelve 1 si se ha hecho la transición y 0 si no:
+     * de dos administradores finalizando a la vez, solo uno obtiene 1.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE partidas SET estat = false, ganador_id = :ganadorId, fecha_finalizacion = :fecha " +
+                   "WHERE id = :partidaId AND estat = true " +
+                   "AND EXISTS (SELECT 1 FROM partida_participantes pp " +
+                   "WHERE pp.partida_id = :partidaId AND pp.persona_id = :ganadorId)",
+           nativeQuery = true)
+    int finalizarSiActiva(Long partidaId, Long ganadorId, LocalDateTime fecha);
     
     /**
      * Cuenta partidas por estado.
      */
     long countByEstat(boolean estat);
     
+    /**
+     * Estadísticas generales en una sola consulta agregada.
+     */
+    @Query("SELECT COUNT(k) AS totalPartidas, " +
+           "COALESCE(SUM(CASE WHEN k.estat = true THEN 1 ELSE 0 END), 0) AS partidasActivas, " +
+           "(SELECT COUNT(p) FROM Persona p) AS totalJugadores " +
+           "FROM KillerKiss k")
+    ResumenEstadisticas obtenerResumenEstadisticas();
+    
     /**
      * Busca partidas por nombre.
      */
     Optional<KillerKiss> findByNom(String nom);
     
     /**
-     * Busca si existe una partida activa con ese nombre.
+     * Cuáles de estos nombres ya tiene alguna partida activa (una consulta para todo un lote).
      */
-    boolean existsByNomAndEstatTrue(String nom);
+    @Query("SELECT k.nom FROM KillerKiss k WHERE k.estat = true AND k.nom IN :noms")
+    List<String> findNomsActivos(Collection<String> noms);
     
     /**
      * Busca partidas ganadas por una persona específica.
      */
     List<KillerKiss> findByGanador(Persona ganador);
+
+    /**
+     * IDs de una página de partidas por ID descendente a partir de un cursor (keyset).
+     * Se paginan solo los IDs: paginar con join fetch de colecciones obligaría a Hibernate
+     * a cargar todo en memoria.
+     */
+    @Query("SELECT k.id FROM KillerKiss k WHERE k.estat IN :estados AND k.id < :antesDe ORDER BY k.id DESC")
+    List<Long> findIdsPaginaPorId(Collection<Boolean> estados, Long antesDe, Pageable limite);
+
+    /**
+     * IDs de una página de partidas por fecha de creación descendente (desempate por ID).
+     * Las partidas sin fecha van primero (como en el DESC de PostgreSQL). sinFecha = true: la
+     * última fila devuelta no tenía fecha, así que siguen las sin fecha con ID menor y después
+     * todas las que tienen fecha; fecha se ignora pero no puede ser null, porque PostgreSQL no
+     * sabe deducir el tipo de un parámetro null en "? IS NULL".
+     */
+    @Query("SELECT k.id FROM KillerKiss k " +
+           "WHERE k.estat IN :estados " +
+           "AND ((:sinFecha = true AND (k.fechaCreacion IS NOT NULL OR k.id < :id)) " +
+           "OR (:sinFecha = false AND (k.fechaCreacion < :fecha " +
+           "OR (k.fechaCreacion = :fecha AND k.id < :id)))) " +
+           "ORDER BY k.fechaCreacion DESC NULLS FIRST, k.id DESC")
+    List<Long> findIdsPaginaPorFecha(Collection<Boolean> estados, boolean sinFecha, LocalDateTime fecha, Long id,
+                                     Pageable limite);
+
+    /**
+     * Resumen de las partidas de una página.
+     */
+    @Query(SELECT_RESUMEN + "WHERE k.id IN :ids")
+    List<ResumenPartida> findResumenesByIdIn(Collection<Long> ids);
+
+    /**
+     * Proyección del resultado de obtenerResumenEstadisticas().
+     */
+    interface ResumenEstadisticas {
+        long getTotalPartidas();
+
+        long getPartidasActivas();
+
+        long getTotalJugadores();
+    }
+
+    /**
+     * Vista de listado de una partida: lo que muestran las tablas, sin participantes ni emails.
+     */
+    interface ResumenPartida {
+        Long getId();
+
+        String getNom();
+
+        Boolean getEstat();
+
+        LocalDateTime getFechaCreacion();
+
+        LocalDateTime getFechaFinalizacion();
+
+        int getNumJugadores();
+
+        String getGanadorNom();
+    }
 }
@@ -0,0 +1,25 @@
+package org.example.repository;
+
+import org.example.entity.PartidaEliminacion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PartidaEliminacionRepository extends JpaRepository<PartidaEliminacion, Long> {
+
+    /**
+     * Eliminaciones de una partida en el orden en que ocurrieron.
+     */
+    List<PartidaEliminacion> findByPartidaIdOrderByPasoAsc(Long partidaId);
+
+    /**
+     * Borra las eliminaciones de una partida (al eliminarla).
+     */
+    @Modifying
+    @Query("DELETE FROM PartidaEliminacion e WHERE e.partidaId = :partidaId")
+    int borrarPorPartida(Long partidaId);
+}
@@ -1,10 +1,13 @@
 package org.example.repository;
 
 import org.example.Persona;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,7 +23,7 @@ import java.util.Optional;
  * - count() - Cuenta total de personas
  */
 @Repository
-public interface PersonaRepository extends JpaRepository<Persona, Long> {
+public interface PersonaRepository extends JpaRepository<Persona, Long>, InsercionPersonas {
     
     /**
      * Busca una persona por su email.
@@ -34,8 +37,45 @@ public interface PersonaRepository extends JpaRepository<Persona, Long> {
     boolean existsByMail(String mail);
 
     /**
-     * Obtiene todas las personas ordenadas por victorias (de mayor a menor).
+     * true si la persona juega (o ha ganado) alguna partida, activa o finalizada.
      */
-    @Query("SELECT p FROM Persona p ORDER BY p.victories DESC")
+    @Query("SELECT COUNT(k) > 0 FROM KillerKiss k LEFT JOIN k.personas p " +
+           "WHERE p.id = :id OR k.ganador.id = :id")
+    boolean participaEnPartidas(Long id);
+
+    /**
+     * Cuáles de estos emails ya están registrados (una consulta por bloque de la importación).
+     */
+    @Query("SELECT p.mail FROM Persona p WHERE p.mail IN :mails")
+    List<String> findMailsExistentes(Collection<String> mails);
+
+    /**
+     * Obtiene todas las personas ordenadas por victorias (de mayor a menor, desempate por ID).
+     * El orden es el del índice idx_personas_ranking.
+     */
+    @Query("SELECT p FROM Persona p ORDER BY p.victories DESC, p.id ASC")
     List<Persona> findAllOrderByVictoriesDesc();
+
+    /**
+     * Suma una victoria de forma atómica en la base de datos (sin leer antes la fila).
+     * Devuelve el número de filas actualizadas (0 si la persona no existe).
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Persona p SET p.victories = p.victories + 1 WHERE p.id = :id")
+    int incrementarVictorias(Long id);
+
+    /**
+     * Página de personas por ID ascendente a partir de un cursor (keyset).
+     * Solo se usa el tamaño de {@code limite}, nunca un offset.
+     */
+    @Query("SELECT p FROM Persona p WHERE p.id > :despuesDe ORDER BY p.id ASC")
+    List<Persona> findPaginaPorId(Long despuesDe, Pageable limite);
+
+    /**
+     * Página de personas por victorias descendentes (desempate por ID) a partir de un cursor.
+     */
+    @Query("SELECT p FROM Persona p " +
+           "WHERE p.victories < :victorias OR (p.victories = :victorias AND p.id > :id) " +
+           "ORDER BY p.victories DESC, p.id ASC")
+    List<Persona> findPaginaPorVictorias(int victorias, Long id, Pageable limite);
 }
@@ -0,0 +1,182 @@
+package org.example.service;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Anillo cazador → objetivo de una partida en curso.
+ *
+ * Cada jugador ocupa un índice fijo; siguiente[i] es el índice de su objetivo y anterior[i]
+ * el de quien le persigue. El índice de un ID se busca por búsqueda binaria en idsOrdenados,
+ * así que eliminar, consultar el objetivo o el cazador son O(log n) y todo el estado son
+ * arrays de primitivos: no hay un objeto por jugador aunque la partida tenga decenas de miles.
+ *
+ * No es thread-safe: quien lo use debe sincronizar sobre la instancia.
+ */
+public class AnilloCaza {
+
+    private final long[] personaIds;
+    /** Los mismos IDs ordenados; indicesOrdenados[k] es el índice de idsOrdenados[k]. */
+    private final long[] idsOrdenados;
+    private final int[] indicesOrdenados;
+    private final int[] siguiente;
+    private final int[] anterior;
+    private final boolean[] vivo;
+    private int vivos;
+    private int eliminaciones;
+
+    /**
+     * Crea el anillo a partir del orden de los participantes: cada uno persigue al siguiente
+     * y el último al primero (el orden guardado en partida_participantes.posicion).
+     */
+    public AnilloCaza(List<Long> participantes) {
+        int n = participantes.size();
+        if (n < 2) {
+            throw new IllegalArgumentException("Se necesitan al menos 2 jugadores");
+        }
+        this.personaIds = new long[n];
+        this.siguiente = new int[n];
+        this.anterior = new int[n];
+        this.vivo = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            personaIds[i] = participantes.get(i);
+            siguiente[i] = (i + 1) % n;
+            anterior[i] = (i + n - 1) % n;
+            vivo[i] = true;
+        }
+        this.vivos = n;
+
+        this.idsOrdenados = personaIds.clone();
+        Arrays.sort(idsOrdenados);
+        for (int k = 1; k < n; k++) {
+            if (idsOrdenados[k] == idsOrdenados[k - 1]) {
+                throw new IllegalArgumentException("Jugador repetido en la partida: " + idsOrdenados[k]);
+            }
+        }
+        this.indicesOrdenados = new int[n];
+        for (int i = 0; i < n; i++) {
+            indicesOrdenados[Arrays.binarySearch(idsOrdenados, personaIds[i])] = i;
+        }
+    }
+
+    /**
+     * Objetivo actual de un jugador vivo.
+     */
+    public long objetivo(long cazadorId) {
+        return personaIds[siguiente[indiceVivo(cazadorId)]];
+    }
+
+    /**
+     * Jugador vivo que persigue a este jugador.
+     */
+    public long cazador(long objetivoId) {
+        return personaIds[anterior[indiceVivo(objetivoId)]];
+    }
+
+    /**
+     * El cazador elimina a su objetivo y pasa a perseguir al objetivo de su víctima.
+     *
+     * @return ID de la víctima
+     */
+    public long eliminar(long cazadorId) {
+        if (vivos <= 1) {
+            throw new IllegalStateException("La partida ya tiene ganador");
+        }
+        int cazador = indiceVivo(cazadorId);
+        int victima = siguiente[cazador];
+        int nuevo = siguiente[victima];
+        siguiente[cazador] = nuevo;
+        anterior[nuevo] = cazador;
+        vivo[victima] = false;
+        vivos--;
+        eliminaciones++;
+        return personaIds[victima];
+    }
+
+    public boolean estaVivo(long personaId) {
+        int indice = indice(personaId);
+        return indice >= 0 && vivo[indice];
+    }
+
+    public boolean participa(long personaId) {
+        return indice(personaId) >= 0;
+    }
+
+    public int getVivos() {
+        return vivos;
+    }
+
+    public int getTotal() {
+        return personaIds.length;
+    }
+
+    public int getEliminaciones() {
+        return eliminaciones;
+    }
+
+    /**
+     * ID del ganador si solo queda un jugador vivo, o null.
+     */
+    public Long ganador() {
+        if (vivos != 1) {
+            return null;
+        }
+        for (int i = 0; i < vivo.length; i++) {
+            if (vivo[i]) {
+                return personaIds[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Recorre el anillo una vez (O(n)) y comprueba que es un único ciclo con todos
+     * los jugadores vivos y que siguiente/anterior son coherentes.
+     */
+    public boolean verificar() {
+        int inicio = -1;
+        int contados = 0;
+        for (int i = 0; i < vivo.length; i++) {
+            if (vivo[i]) {
+                contados++;
+                if (inicio < 0) {
+                    inicio = i;
+                }
+            }
+        }
+        if (contados != vivos || inicio < 0) {
+            return false;
+        }
+        int actual = inicio;
+        for (int paso = 0; paso < vivos; paso++) {
+            int sig = siguiente[actual];
+            if (!vivo[sig] || anterior[sig] != actual) {
+                return false;
+            }
+            actual = sig;
+            if (actual == inicio && paso < vivos - 1) {
+                return false;
+            }
+        }
+        return actual == inicio;
+    }
+
+    /**
+     * Índice del jugador en el anillo, o -1 si no participa.
+     */
+    private int indice(long personaId) {
+        int k = Arrays.binarySearch(idsOrdenados, personaId);
+        return k >= 0 ? indicesOrdenados[k] : -1;
+    }
+
+    private int indiceVivo(long personaId) {
+        int indice = indice(personaId);
+        if (indice < 0) {
+            throw new IllegalArgumentException("El jugador no participa en esta partida");
+        }
+        if (!vivo[indice]) {
+            throw new IllegalStateException("El jugador ya ha sido eliminado");
+        }
+        return indice;
+    }
+}
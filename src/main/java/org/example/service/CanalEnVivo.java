@@ -0,0 +1,237 @@
+package org.example.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.example.Persona;
+import org.example.evento.PartidaEvento;
+import org.example.evento.PersonaEvento;
+import org.example.repository.KillerKissRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Canal Server-Sent Events con los cambios de partidas y ranking en directo.
+ *
+ * Todos los clientes comparten un único difusor: cada cambio confirmado se convierte en un
+ * delta (solo lo que ha cambiado + estadísticas actuales), se serializa una vez y se envía
+ * el mismo texto a todas las conexiones. La base de datos se consulta como mucho una vez por
+ * cambio, da igual cuántas pantallas estén abiertas.
+ *
+ * Los listeners van después de IndiceRanking y ContadoresEstadisticas (@Order), así que el
+ * delta se construye con los datos en memoria ya actualizados. El delta se construye en un
+ * hilo propio para no retrasar al que ha hecho el commit.
+ *
+ * Cada cliente tiene su propia cola acotada (eventos.sse.cola) que vacía un hilo de envío:
+ * un cliente lento no retrasa a los demás. Si su cola se llena se le cierra la conexión;
+ * EventSource se reconecta y se pone al día con /api/changes.
+ */
+@Component
+public class CanalEnVivo {
+
+    /** El mismo ObjectMapper que las respuestas REST, para que las fechas tengan el mismo formato. */
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private KillerKissRepository partidaRepository;
+
+    @Autowired
+    private IndiceRanking indiceRanking;
+
+    @Autowired
+    private ContadoresEstadisticas contadoresEstadisticas;
+
+    @Value("${eventos.sse.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${eventos.sse.cola:1024}")
+    private int capacidadCola;
+
+    private final List<Cliente> clientes = new CopyOnWriteArrayList<>();
+    private final ExecutorService difusor = Executors.newSingleThreadExecutor(r -> {
+        Thread hilo = new Thread(r, "sse-difusor");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+    /** Como mucho un hilo por cliente con envíos pendientes; los inactivos no ocupan ninguno. */
+    private final ExecutorService envios = Executors.newCachedThreadPool(r -> {
+        Thread hilo = new Thread(r, "sse-envio");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+
+    /**
+     * Registra un cliente nuevo. El navegador (EventSource) se reconecta solo al caducar.
+     */
+    public SseEmitter suscribir() {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Cliente cliente = new Cliente(emitter, capacidadCola);
+        emitter.onCompletion(() -> clientes.remove(cliente));
+        emitter.onTimeout(() -> clientes.remove(cliente));
+        emitter.onError(e -> clientes.remove(cliente));
+        clientes.add(cliente);
+        return emitter;
+    }
+
+    public int getClientes() {
+        return clientes.size();
+    }
+
+    @Order(100)
+    @TransactionalEventListener
+    public void alCambiarPartida(PartidaEvento evento) {
+        if (clientes.isEmpty()) {
+            return;
+        }
+        difusor.execute(() -> {
+            Map<String, Object> delta = new LinkedHashMap<>();
+            delta.put("tipo", evento.getTipo());
+            delta.put("partidaId", evento.getPartidaId());
+            if (evento.getTipo() != PartidaEvento.Tipo.ELIMINADA) {
+                List<KillerKissRepository.ResumenPartida> resumen =
+                        partidaRepository.findResumenesByIdIn(List.of(evento.getPartidaId()));
+                delta.put("partida", resumen.isEmpty() ? null : resumen.get(0));
+            }
+            delta.put("estadisticas", contadoresEstadisticas.obtener());
+            difundir("partida", delta);
+        });
+    }
+
+    @Order(100)
+    @TransactionalEventListener
+    public void alCambiarPersona(PersonaEvento evento) {
+        if (clientes.isEmpty()) {
+            return;
+        }
+        difusor.execute(() -> {
+            Map<String, Object> delta = new LinkedHashMap<>();
+            delta.put("tipo", evento.getTipo());
+            delta.put("personaId", evento.getPersonaId());
+            Persona persona = indiceRanking.buscar(evento.getPersonaId());
+            if (persona != null) {
+                delta.put("jugador", new PersonaService.JugadorRankingDTO(
+                        persona.getId(), persona.getNom(), persona.getVictories()));
+                delta.put("posicion", indiceRanking.posicion(persona.getId()));
+            }
+            delta.put("estadisticas", contadoresEstadisticas.obtener());
+            difundir("ranking", delta);
+        });
+    }
+
+    /**
+     * Comentario SSE periódico para que proxies y balanceadores no cierren las conexiones inactivas.
+     */
+    @Scheduled(fixedDelayString = "${eventos.sse.heartbeat-ms:25000}")
+    public void latido() {
+        if (clientes.isEmpty()) {
+            return;
+        }
+        difusor.execute(() -> {
+            for (Cliente cliente : clientes) {
+                encolar(cliente, SseEmitter.event().comment("ping"));
+            }
+        });
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        difusor.shutdownNow();
+        envios.shutdownNow();
+        clientes.forEach(cliente -> cliente.emitter.complete());
+        clientes.clear();
+    }
+
+    private void difundir(String nombre, Map<String, Object> delta) {
+        String datos;
+        try {
+            datos = objectMapper.writeValueAsString(delta);
+        } catch (IOException e) {
+            System.err.println("✗ No se pudo serializar el evento " + nombre + ": " + e.getMessage());
+            return;
+        }
+        for (Cliente cliente : clientes) {
+            encolar(cliente, SseEmitter.event().name(nombre).data(datos));
+        }
+    }
+
+    /**
+     * Deja el evento en la cola del cliente y, si no hay ya un envío en curso, lanza uno.
+     * Nunca bloquea al difusor: con la cola llena el cliente se descarta.
+     */
+    private void encolar(Cliente cliente, SseEmitter.SseEventBuilder evento) {
+        if (!cliente.cola.offer(evento)) {
+            System.err.println("✗ Cliente SSE demasiado lento (" + capacidadCola + " eventos sin enviar), se cierra");
+            descartar(cliente, null);
+            return;
+        }
+        if (cliente.enviando.compareAndSet(false, true)) {
+            envios.execute(() -> vaciar(cliente));
+        }
+    }
+
+    private void vaciar(Cliente cliente) {
+        while (true) {
+            SseEmitter.SseEventBuilder evento;
+            while ((evento = cliente.cola.poll()) != null) {
+                try {
+                    cliente.emitter.send(evento);
+                } catch (IOException | IllegalStateException e) {
+                    // Cliente desconectado
+                    descartar(cliente, e);
+                    return;
+                }
+            }
+            cliente.enviando.set(false);
+            // Un evento encolado justo antes de soltar el indicador no ha lanzado otro envío
+            if (cliente.cola.isEmpty() || !cliente.enviando.compareAndSet(false, true)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Quita el cliente y cierra su conexión. Sin error (cola llena) el cierre va al hilo de
+     * envío: complete() espera a que termine el send() en curso, que puede estar bloqueado.
+     */
+    private void descartar(Cliente cliente, Exception error) {
+        if (clientes.remove(cliente)) {
+            cliente.cola.clear();
+            if (error != null) {
+                cliente.emitter.completeWithError(error);
+            } else {
+                envios.execute(cliente.emitter::complete);
+            }
+        }
+    }
+
+    /**
+     * Conexión SSE con sus eventos pendientes de enviar.
+     */
+    private static class Cliente {
+
+        private final SseEmitter emitter;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> cola;
+        private final AtomicBoolean enviando = new AtomicBoolean();
+
+        private Cliente(SseEmitter emitter, int capacidad) {
+            this.emitter = emitter;
+            this.cola = new ArrayBlockingQueue<>(capacidad);
+        }
+    }
+}
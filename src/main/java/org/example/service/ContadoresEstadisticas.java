@@ -0,0 +1,117 @@
+package org.example.service;
+
+import org.example.evento.PartidaEvento;
+import org.example.evento.PersonaEvento;
+import org.example.repository.KillerKissRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Contadores de estadísticas en memoria.
+ * Se cargan con una única consulta agregada y se actualizan con los eventos de
+ * creación, finalización y borrado. Como red de seguridad, la instantánea se vuelve
+ * a leer de la base de datos cuando supera estadisticas.max-staleness-ms.
+ * Los listeners van antes que CanalEnVivo, que publica los contadores ya actualizados.
+ */
+@Component
+public class ContadoresEstadisticas {
+
+    @Autowired
+    private KillerKissRepository partidaRepository;
+
+    @Value("${estadisticas.max-staleness-ms:60000}")
+    private long maxAntiguedadMs;
+
+    private final AtomicReference<Instantanea> instantanea = new AtomicReference<>();
+
+    /**
+     * Devuelve las estadísticas actuales, recargándolas si la instantánea ha caducado.
+     */
+    public KillerKissService.EstadisticasDTO obtener() {
+        Instantanea actual = instantanea.get();
+        if (actual == null || System.nanoTime() - actual.cargadaEn > maxAntiguedadMs * 1_000_000L) {
+            actual = recargar();
+        }
+        return new KillerKissService.EstadisticasDTO(
+                actual.totalPartidas,
+                actual.partidasActivas,
+                actual.totalPartidas - actual.partidasActivas,
+                actual.totalJugadores);
+    }
+
+    /**
+     * Lee de nuevo los contadores de la base de datos.
+     */
+    public Instantanea recargar() {
+        KillerKissRepository.ResumenEstadisticas resumen = partidaRepository.obtenerResumenEstadisticas();
+        Instantanea nueva = new Instantanea(
+                resumen.getTotalPartidas(), resumen.getPartidasActivas(), resumen.getTotalJugadores(), System.nanoTime());
+        instantanea.set(nueva);
+        return nueva;
+    }
+
+    @Order(0)
+    @TransactionalEventListener
+    public void alCambiarPartida(PartidaEvento evento) {
+        switch (evento.getTipo()) {
+            case CREADA -> aplicar(1, 1, 0);
+            case FINALIZADA -> aplicar(0, -1, 0);
+            case ELIMINADA -> aplicar(-1, evento.isEstabaActiva() ? -1 : 0, 0);
+        }
+    }
+
+    @Order(0)
+    @TransactionalEventListener
+    public void alCambiarPersona(PersonaEvento evento) {
+        switch (evento.getTipo()) {
+            case CREADA -> aplicar(0, 0, 1);
+            case ELIMINADA -> aplicar(0, 0, -1);
+            default -> {
+                // Actualizaciones y victorias no cambian los contadores
+            }
+        }
+    }
+
+    private void aplicar(long deltaPartidas, long deltaActivas, long deltaJugadores) {
+        instantanea.updateAndGet(i -> i == null ? null : new Instantanea(
+                i.totalPartidas + deltaPartidas,
+                i.partidasActivas + deltaActivas,
+                i.totalJugadores + deltaJugadores,
+                i.cargadaEn));
+    }
+
+    /**
+     * Valores inmutables de los contadores y el instante en que se leyeron de la base de datos.
+     */
+    public static class Instantanea {
+
+        private final long totalPartidas;
+        private final long partidasActivas;
+        private final long totalJugadores;
+        private final long cargadaEn;
+
+        public Instantanea(long totalPartidas, long partidasActivas, long totalJugadores, long cargadaEn) {
+            this.totalPartidas = totalPartidas;
+            this.partidasActivas = partidasActivas;
+            this.totalJugadores = totalJugadores;
+            this.cargadaEn = cargadaEn;
+        }
+
+        public long getTotalPartidas() {
+            return totalPartidas;
+        }
+
+        public long getPartidasActivas() {
+            return partidasActivas;
+        }
+
+        public long getTotalJugadores() {
+            return totalJugadores;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package org.example.service;
+
+import io.micrometer.core.annotation.Timed;
+import org.example.Persona;
+import org.example.dto.PaginaDTO;
+import org.example.repository.KillerKissRepository.ResumenPartida;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Reúne en una sola respuesta todo lo que necesita la página de administración.
+ *
+ * Las consultas a la base de datos se hacen seguidas en el hilo de la petición, dentro de una
+ * única transacción de solo lectura (una sola conexión del pool). También las estadísticas:
+ * aunque suelen salir de memoria, releen la BD cuando caducan. Solo el ranking, que siempre
+ * se sirve desde memoria, se calcula en paralelo.
+ */
+@Service
+@Timed(value = "killerkiss.servicio", histogram = true)
+public class DashboardService {
+
+    /** Tamaño de la primera página de partidas finalizadas (el mismo que pide app.js). */
+    private static final int PAGINA_FINALIZADAS = 50;
+
+    @Autowired
+    private PersonaService personaService;
+
+    @Autowired
+    private KillerKissService partidaService;
+
+    @Autowired
+    private RegistroCambios registroCambios;
+
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private TaskExecutor executor;
+
+    @Transactional(readOnly = true)
+    public DashboardDTO obtener() {
+        // Antes que los datos: un cambio que llegue en medio se volverá a recibir en /api/changes
+        long secuenciaCambios = registroCambios.secuenciaActual();
+        CompletableFuture<List<PersonaService.JugadorRankingDTO>> ranking =
+                CompletableFuture.supplyAsync(() -> personaService.obtenerRanking(null), executor);
+
+        List<Persona> personas = personaService.listarTodas();
+        List<ResumenPartida> activas = partidaService.listarActivas();
+        PaginaDTO<ResumenPartida> finalizadas =
+                partidaService.listarPagina("finalizadas", "fechaCreacion", null, PAGINA_FINALIZADAS);
+        KillerKissService.EstadisticasDTO estadisticas = partidaService.obtenerEstadisticas();
+
+        DashboardDTO dashboard = new DashboardDTO(personas, ranking.join(), activas, finalizadas, estadisticas);
+        dashboard.setSecuenciaCambios(secuenciaCambios);
+        return dashboard;
+    }
+
+    /**
+     * Clase interna con todos los datos de la página de administración.
+     */
+    public static class DashboardDTO {
+
+        private Map<String, Object> config;
+        private List<Persona> personas;
+        private List<PersonaService.JugadorRankingDTO> ranking;
+        private List<ResumenPartida> partidasActivas;
+        private PaginaDTO<ResumenPartida> partidasFinalizadas;
+        private KillerKissService.EstadisticasDTO estadisticas;
+        private long secuenciaCambios;
+
+        public DashboardDTO(List<Persona> personas,
+                            List<PersonaService.JugadorRankingDTO> ranking,
+                            List<ResumenPartida> partidasActivas,
+                            PaginaDTO<ResumenPartida> partidasFinalizadas,
+                            KillerKissService.EstadisticasDTO estadisticas) {
+            this.personas = personas;
+            this.ranking = ranking;
+            this.partidasActivas = partidasActivas;
+            this.partidasFinalizadas = partidasFinalizadas;
+            this.estadisticas = estadisticas;
+        }
+
+        public Map<String, Object> getConfig() {
+            return config;
+        }
+
+        public void setConfig(Map<String, Object> config) {
+            this.config = config;
+        }
+
+        public List<Persona> getPersonas() {
+            return personas;
+        }
+
+        public List<PersonaService.JugadorRankingDTO> getRanking() {
+            return ranking;
+        }
+
+        public List<ResumenPartida> getPartidasActivas() {
+            return partidasActivas;
+        }
+
+        public PaginaDTO<ResumenPartida> getPartidasFinalizadas() {
+            return partidasFinalizadas;
+        }
+
+        public KillerKissService.EstadisticasDTO getEstadisticas() {
+            return estadisticas;
+        }
+
+        /** Versión de los datos, para pedir después solo los cambios con /api/changes?since=. */
+        public long getSecuenciaCambios() {
+            return secuenciaCambios;
+        }
+
+        public void setSecuenciaCambios(long secuenciaCambios) {
+            this.secuenciaCambios = secuenciaCambios;
+        }
+    }
+}
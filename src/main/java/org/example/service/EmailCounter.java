@@ -1,15 +1,27 @@
 package org.example.service;
 
+import jakarta.annotation.PreDestroy;
 import org.example.repository.EmailCounterRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Componente para rastrear el número de emails enviados por día.
- * Persiste en base de datos para mantener el contador entre reinicios.
  * SendGrid Free permite 100 emails/día.
+ *
+ * El contador vive en memoria y se reserva cuota con compare-and-swap, sin bloqueos
+ * ni acceso a la base de datos en el camino habitual. La persistencia es diferida:
+ * - Antes de conceder cuota por encima de lo ya guardado, se amplía la reserva en
+ *   email_counter (emails_reservados) en bloques de email.cuota.bloque-reserva.
+ *   Tras un reinicio se parte de esa reserva, así nunca se concede más de lo real.
+ * - Periódicamente se vuelca el número exacto de enviados (emails_enviados).
+ * - Al parar la aplicación la reserva se ajusta al valor exacto.
  */
 @Component
 public class EmailCounter {
@@ -19,37 +31,46 @@ public class EmailCounter {
 
     private static final int LIMITE_DIARIO = 100;
 
+    @Value("${email.cuota.bloque-reserva:10}")
+    private int bloqueReserva;
+
+    private final AtomicReference<ContadorDia> actual = new AtomicReference<>();
+
     /**
      * Incrementa el contador de emails enviados hoy.
      */
-    public synchronized void incrementar() {
+    public void incrementar() {
         incrementar(1);
     }
 
     /**
-     * Incrementa el contador de emails enviados hoy en la cantidad especificada.
+     * Incrementa el contador de emails enviados hoy en la cantidad especificada
+     * (aunque se supere el límite: registra envíos ya hechos).
      */
-    public synchronized void incrementar(int cantidad) {
-        LocalDate hoy = LocalDate.now();
-        org.example.entity.EmailCounter counter = repository.findByFecha(hoy)
-                .orElseGet(() -> {
-                    org.example.entity.EmailCounter nuevo = new org.example.entity.EmailCounter(hoy);
-                    return repository.save(nuevo);
-                });
-        
-        counter.incrementar(cantidad);
-        counter = repository.save(counter);
-        System.out.println("Email enviado. Total hoy: " + counter.getEmailsEnviados() + "/" + LIMITE_DIARIO);
+    public void incrementar(int cantidad) {
+        sumar(cantidad, false);
+    }
+
+    /**
+     * Reserva cuota para enviar la cantidad especificada de emails.
+     * Devuelve false, sin reservar nada, si se superaría el límite diario.
+     */
+    public boolean reservar(int cantidad) {
+        return sumar(cantidad, true);
+    }
+
+    /**
+     * Devuelve cuota reservada que finalmente no se ha usado (por ejemplo, un envío fallido).
+     */
+    public void liberar(int cantidad) {
+        contadorDeHoy().enviados.updateAndGet(v -> Math.max(0, v - cantidad));
     }
 
     /**
      * Obtiene el número de emails enviados hoy.
      */
-    public synchronized int getEnviadosHoy() {
-        LocalDate hoy = LocalDate.now();
-        return repository.findByFecha(hoy)
-                .map(c -> c.getEmailsEnviados())
-                .orElse(0);
+    public int getEnviadosHoy() {
+        return contadorDeHoy().enviados.get();
     }
 
     /**
@@ -62,21 +83,132 @@ public class EmailCounter {
     /**
      * Retorna el contador en formato "X/100"
      */
-    public synchronized String getContadorFormateado() {
+    public String getContadorFormateado() {
         return getEnviadosHoy() + "/" + LIMITE_DIARIO;
     }
 
     /**
      * Verifica si se ha alcanzado el límite diario.
      */
-    public synchronized boolean limiteAlcanzado() {
+    public boolean limiteAlcanzado() {
         return getEnviadosHoy() >= LIMITE_DIARIO;
     }
 
     /**
      * Verifica si se pueden enviar la cantidad de emails especificada.
+     * Solo es orientativo: para enviar de verdad hay que usar reservar().
      */
-    public synchronized boolean puedeEnviar(int cantidad) {
+    public boolean puedeEnviar(int cantidad) {
         return (getEnviadosHoy() + cantidad) <= LIMITE_DIARIO;
     }
+
+    /**
+     * Vuelca periódicamente el número de enviados a email_counter.
+     */
+    @Scheduled(fixedDelayString = "${email.cuota.volcado-ms:10000}")
+    public void volcar() {
+        ContadorDia dia = actual.get();
+        if (dia == null) {
+            return;
+        }
+        int enviados = dia.enviados.get();
+        if (enviados != dia.volcados) {
+            repository.guardarContador(dia.fecha, enviados, dia.reservadoEnBd);
+            dia.volcados = enviados;
+        }
+    }
+
+    /**
+     * Al parar la aplicación se guarda el valor exacto y se libera la reserva sobrante.
+     */
+    @PreDestroy
+    public void cerrar() {
+        ContadorDia dia = actual.get();
+        if (dia != null) {
+            repository.liberarReserva(dia.fecha, dia.enviados.get());
+        }
+    }
+
+    private boolean sumar(int cantidad, boolean respetarLimite) {
+        if (cantidad <= 0) {
+            return true;
+        }
+        ContadorDia dia = contadorDeHoy();
+        while (true) {
+            int enviados = dia.enviados.get();
+            int nuevos = enviados + cantidad;
+            if (respetarLimite && nuevos > LIMITE_DIARIO) {
+                return false;
+            }
+            if (nuevos > dia.reservadoEnBd) {
+                // Camino lento (una vez por bloque): persistir la reserva antes de concederla
+                ampliarReserva(dia, nuevos);
+                continue;
+            }
+            if (dia.enviados.compareAndSet(enviados, nuevos)) {
+                return true;
+            }
+        }
+    }
+
+    private void ampliarReserva(ContadorDia dia, int necesarios) {
+        synchronized (dia) {
+            if (necesarios <= dia.reservadoEnBd) {
+                return;
+            }
+            int techo = Math.max(necesarios, Math.min(LIMITE_DIARIO, necesarios + bloqueReserva));
+            repository.guardarContador(dia.fecha, dia.enviados.get(), techo);
+            dia.reservadoEnBd = techo;
+        }
+    }
+
+    private ContadorDia contadorDeHoy() {
+        LocalDate hoy = LocalDate.now();
+        ContadorDia dia = actual.get();
+        if (dia != null && dia.fecha.equals(hoy)) {
+            return dia;
+        }
+        synchronized (this) {
+            dia = actual.get();
+            if (dia == null || !dia.fecha.equals(hoy)) {
+                if (dia != null) {
+                    repository.liberarReserva(dia.fecha, dia.enviados.get());
+                }
+                dia = cargarDia(hoy);
+                actual.set(dia);
+            }
+            return dia;
+        }
+    }
+
+    private ContadorDia cargarDia(LocalDate fecha) {
+        return repository.findByFecha(fecha)
+                .map(c -> {
+                    int enviados = c.getEmailsEnviados() != null ? c.getEmailsEnviados() : 0;
+                    int reservados = c.getEmailsReservados() != null ? c.getEmailsReservados() : 0;
+                    // Lo concedido antes de un reinicio puede estar entre enviados y reservados:
+                    // se asume lo peor para no pasarse del límite
+                    int base = Math.max(enviados, reservados);
+                    return new ContadorDia(fecha, base, base, enviados);
+                })
+                .orElseGet(() -> new ContadorDia(fecha, 0, 0, 0));
+    }
+
+    /**
+     * Estado en memoria del contador de un día.
+     */
+    private static final class ContadorDia {
+
+        private final LocalDate fecha;
+        private final AtomicInteger enviados;
+        private volatile int reservadoEnBd;
+        private volatile int volcados;
+
+        private ContadorDia(LocalDate fecha, int enviados, int reservadoEnBd, int volcados) {
+            this.fecha = fecha;
+            this.enviados = new AtomicInteger(enviados);
+            this.reservadoEnBd = reservadoEnBd;
+            this.volcados = volcados;
+        }
+    }
 }
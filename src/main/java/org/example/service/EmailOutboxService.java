@@ -0,0 +1,349 @@
+package org.example.service;
+
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.example.KillerKiss;
+import org.example.Persona;
+import org.example.entity.EmailOutbox;
+import org.example.repository.EmailOutboxRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.util.HtmlUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Envío de emails de partida desde el servidor mediante una tabla outbox.
+ *
+ * Al crear una partida se escribe un email por jugador en email_outbox, dentro de la
+ * misma transacción. Un pool de workers reclama lotes pendientes (FOR UPDATE SKIP LOCKED),
+ * reserva cuota diaria en EmailCounter, los envía por Resend y reintenta los fallos con
+ * espera exponencial. El progreso de cada partida se consulta con obtenerProgreso().
+ *
+ * Un email reclamado queda en ENVIANDO con proximo_intento = ahora + email.outbox.lease-ms.
+ * Si el worker muere sin guardar el resultado, la siguiente pasada de despachar() lo devuelve
+ * a la cola al vencer ese plazo (puede duplicar algún envío, pero nunca se pierde ninguno).
+ *
+ * Se activa con email.outbox.enabled=true y requiere resend.api.key.
+ */
+@Service
+@Timed(value = "killerkiss.servicio", histogram = true)
+public class EmailOutboxService {
+
+    @Autowired
+    private EmailOutboxRepository outboxRepository;
+
+    @Autowired
+    private SendGridApiService sendGridApiService;
+
+    @Autowired
+    private EmailCounter emailCounter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${email.outbox.enabled:false}")
+    private boolean habilitado;
+
+    @Value("${email.outbox.workers:2}")
+    private int workers;
+
+    @Value("${email.outbox.lote:50}")
+    private int tamanoLote;
+
+    @Value("${email.outbox.max-intentos:5}")
+    private int maxIntentos;
+
+    @Value("${email.outbox.espera-base-ms:30000}")
+    private long esperaBaseMs;
+
+    @Value("${email.outbox.lease-ms:300000}")
+    private long leaseMs;
+
+    @Value("${mail.remitente:}")
+    private String remitente;
+
+    private final TransactionTemplate transaccion;
+    private final ExecutorService pool = Executors.newCachedThreadPool(r -> {
+        Thread hilo = new Thread(r, "email-outbox");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+    private final AtomicInteger workersActivos = new AtomicInteger();
+
+    public EmailOutboxService(PlatformTransactionManager transactionManager) {
+        this.transaccion = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Indica si los emails de partida se envían desde el servidor.
+     */
+    public boolean isHabilitado() {
+        return habilitado && sendGridApiService.isConfigured();
+    }
+
+    /**
+     * Escribe en el outbox un email por jugador con el nombre de su víctima.
+     * Debe llamarse dentro de la transacción que crea la partida.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void encolarPartida(KillerKiss partida, String idioma) {
+        List<Persona> participantes = partida.getPersonas();
+        List<EmailOutbox> emails = new ArrayList<>(participantes.size());
+        for (int i = 0; i < participantes.size(); i++) {
+            Persona jugador = participantes.get(i);
+            Persona victima = participantes.get((i + 1) % participantes.size());
+            if (jugador.getMail() == null || jugador.getMail().isEmpty()) {
+                continue;
+            }
+            emails.add(new EmailOutbox(
+                    partida.getId(),
+                    jugador.getMail(),
+                    jugador.getNom(),
+                    asunto(idioma),
+                    html(idioma, jugador.getNom(), victima.getNom(), partida.getNom())));
+        }
+        outboxRepository.saveAll(emails);
+    }
+
+    /**
+     * Progreso del envío de una partida.
+     */
+    @Transactional(readOnly = true)
+    public ProgresoEnvioDTO obtenerProgreso(Long partidaId) {
+        ProgresoEnvioDTO progreso = new ProgresoEnvioDTO(partidaId);
+        for (EmailOutboxRepository.RecuentoEstado recuento : outboxRepository.contarPorEstado(partidaId)) {
+            progreso.sumar(recuento.getEstado(), recuento.getTotal());
+        }
+        if (progreso.getFallidos() > 0) {
+            for (EmailOutbox email : outboxRepository.findByPartidaIdAndEstado(partidaId, EmailOutbox.Estado.FALLIDO)) {
+                progreso.getDetallesFallidos().add(new ProgresoEnvioDTO.Fallido(
+                        email.getNombre(), email.getDestinatario(), email.getUltimoError()));
+            }
+        }
+        return progreso;
+    }
+
+    /**
+     * Devuelve a la cola los emails en ENVIANDO cuyo plazo ha vencido y arranca workers
+     * hasta email.outbox.workers; cada uno drena lotes mientras haya trabajo.
+     */
+    @Scheduled(fixedDelayString = "${email.outbox.intervalo-ms:5000}")
+    public void despachar() {
+        if (!isHabilitado()) {
+            return;
+        }
+        Integer caducados = transaccion.execute(estado -> outboxRepository.reencolarCaducados(LocalDateTime.now()));
+        if (caducados != null && caducados > 0) {
+            System.err.println("✗ " + caducados + " emails del outbox sin resultado tras el plazo; vuelven a la cola");
+            contar("caducado", caducados);
+        }
+        while (true) {
+            int activos = workersActivos.get();
+            if (activos >= workers) {
+                return;
+            }
+            if (workersActivos.compareAndSet(activos, activos + 1)) {
+                pool.submit(this::worker);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void detener() {
+        pool.shutdownNow();
+    }
+
+    private void worker() {
+        try {
+            while (!Thread.currentThread().isInterrupted() && procesarLote() > 0) {
+                // Seguir mientras se reclamen emails
+            }
+        } catch (Exception e) {
+            System.err.println("✗ Error en worker del outbox: " + e.getMessage());
+        } finally {
+            workersActivos.decrementAndGet();
+        }
+    }
+
+    /**
+     * Reclama un lote, lo envía y guarda el resultado de cada email.
+     * La conexión a la base de datos solo se usa al reclamar y al guardar, nunca durante el envío.
+     *
+     * @return número de emails reclamados
+     */
+    private int procesarLote() {
+        List<EmailOutbox> lote = transaccion.execute(estado -> {
+            LocalDateTime ahora = LocalDateTime.now();
+            List<EmailOutbox> reclamados = outboxRepository.reclamarPendientes(ahora, tamanoLote);
+            LocalDateTime plazo = ahora.plusNanos(leaseMs * 1_000_000L);
+            reclamados.forEach(e -> e.reclamar(plazo));
+            return reclamados;
+        });
+        if (lote == null || lote.isEmpty()) {
+            return 0;
+        }
+
+        List<EmailOutbox> aEnviar = new ArrayList<>(lote.size());
+        List<EmailOutbox> sinCuota = new ArrayList<>();
+        for (EmailOutbox email : lote) {
+            if (emailCounter.reservar(1)) {
+                aEnviar.add(email);
+            } else {
+                sinCuota.add(email);
+            }
+        }
+
+        List<SendGridApiService.Email> emails = new ArrayList<>(aEnviar.size());
+        for (EmailOutbox email : aEnviar) {
+            emails.add(new SendGridApiService.Email(remitente, email.getDestinatario(), email.getAsunto(), email.getHtml()));
+        }
+        List<CompletableFuture<SendGridApiService.Resultado>> resultados = sendGridApiService.enviarLote(emails);
+        CompletableFuture.allOf(resultados.toArray(new CompletableFuture[0])).join();
+
+        LocalDateTime ahora = LocalDateTime.now();
+        for (int i = 0; i < aEnviar.size(); i++) {
+            EmailOutbox email = aEnviar.get(i);
+            SendGridApiService.Resultado resultado = resultados.get(i).join();
+            if (resultado.isOk()) {
+                email.marcarEnviado();
+                contar("enviado", 1);
+            } else {
+                emailCounter.liberar(1);
+                boolean definitivo = email.getIntentos() + 1 >= maxIntentos;
+                long espera = esperaBaseMs << Math.min(email.getIntentos(), 10);
+                email.registrarFallo(resultado.getError(), ahora.plusNanos(espera * 1_000_000L), definitivo);
+                contar(definitivo ? "fallido" : "reintento", 1);
+            }
+        }
+        // Sin cuota: se aplazan hasta mañana sin gastar intentos
+        LocalDateTime manana = LocalDate.now().plusDays(1).atStartOfDay();
+        sinCuota.forEach(email -> email.aplazar(manana));
+        contar("aplazado", sinCuota.size());
+
+        transaccion.executeWithoutResult(estado -> outboxRepository.saveAll(lote));
+        return lote.size();
+    }
+
+    private void contar(String resultado, int cantidad) {
+        if (cantidad > 0) {
+            meterRegistry.counter("killerkiss.email.outbox", "resultado", resultado).increment(cantidad);
+        }
+    }
+
+    private String asunto(String idioma) {
+        return "ca".equals(idioma) ? "🎯 Killer Kiss - La teva víctima" : "🎯 Killer Kiss - Tu víctima";
+    }
+
+    private String html(String idioma, String jugador, String victima, String partida) {
+        boolean catalan = "ca".equals(idioma);
+        return "<div style=\"font-family:Arial,sans-serif;max-width:600px;margin:auto;padding:30px;"
+                + "background:linear-gradient(135deg,#667eea 0%,#764ba2 100%);color:#fff;border-radius:12px\">"
+                + "<h1 style=\"text-align:center\">💋 KILLER KISS</h1>"
+                + "<p>" + (catalan ? "Hola " : "Hola ") + HtmlUtils.htmlEscape(jugador) + ",</p>"
+                + "<p>" + (catalan ? "Comença la partida " : "Empieza la partida ")
+                + "<strong>" + HtmlUtils.htmlEscape(partida) + "</strong>.</p>"
+                + "<p>" + (catalan ? "La teva víctima és:" : "Tu víctima es:") + "</p>"
+                + "<h2 style=\"text-align:center;background:rgba(255,255,255,.2);padding:15px;border-radius:8px\">"
+                + HtmlUtils.htmlEscape(victima) + "</h2>"
+                + "<p>" + (catalan ? "Sort! 😘" : "¡Suerte! 😘") + "</p>"
+                + "</div>";
+    }
+
+    /**
+     * Clase interna para devolver el progreso de envío de una partida.
+     */
+    public static class ProgresoEnvioDTO {
+
+        private Long partidaId;
+        private long pendientes;
+        private long enviando;
+        private long enviados;
+        private long fallidos;
+        private List<Fallido> detallesFallidos = new ArrayList<>();
+
+        public ProgresoEnvioDTO(Long partidaId) {
+            this.partidaId = partidaId;
+        }
+
+        void sumar(EmailOutbox.Estado estado, long total) {
+            switch (estado) {
+                case PENDIENTE -> pendientes += total;
+                case ENVIANDO -> enviando += total;
+                case ENVIADO -> enviados += total;
+                case FALLIDO -> fallidos += total;
+            }
+        }
+
+        public Long getPartidaId() {
+            return partidaId;
+        }
+
+        public long getPendientes() {
+            return pendientes;
+        }
+
+        public long getEnviando() {
+            return enviando;
+        }
+
+        public long getEnviados() {
+            return enviados;
+        }
+
+        public long getFallidos() {
+            return fallidos;
+        }
+
+        public long getTotal() {
+            return pendientes + enviando + enviados + fallidos;
+        }
+
+        public boolean isTerminado() {
+            return pendientes == 0 && enviando == 0;
+        }
+
+        public List<Fallido> getDetallesFallidos() {
+            return detallesFallidos;
+        }
+
+        public static class Fallido {
+
+            private String nombre;
+            private String email;
+            private String mensaje;
+
+            public Fallido(String nombre, String email, String mensaje) {
+                this.nombre = nombre;
+                this.email = email;
+                this.mensaje = mensaje;
+            }
+
+            public String getNombre() {
+                return nombre;
+            }
+
+            public String getEmail() {
+                return email;
+            }
+
+            public String getMensaje() {
+                return mensaje;
+            }
+        }
+    }
+}
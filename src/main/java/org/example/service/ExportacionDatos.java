@@ -0,0 +1,316 @@
+package org.example.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
+import org.example.dto.Csv;
+import org.example.dto.FormatoDatos;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Exportación de personas y del historial de partidas en CSV o NDJSON.
+ *
+ * Las filas se leen con un cursor (fetch size exportacion.fetch-size, en una transacción de
+ * solo lectura: sin ella el driver de PostgreSQL carga todo el resultado) y se escriben en la
+ * respuesta según llegan, así que la memoria no depende del número de filas. La conexión
+ * queda ocupada mientras dura la descarga, por eso solo se permiten exportacion.simultaneas
+ * descargas a la vez (reservar / liberar).
+ */
+@Service
+@Timed(value = "killerkiss.servicio", histogram = true)
+public class ExportacionDatos {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /** El mismo ObjectMapper que las respuestas REST. */
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${exportacion.fetch-size:500}")
+    private int fetchSize;
+
+    private final TransactionTemplate transaccion;
+
+    private final Semaphore descargas;
+
+    public ExportacionDatos(PlatformTransactionManager transactionManager,
+                            @Value("${exportacion.simultaneas:1}") int simultaneas) {
+        this.transaccion = new TransactionTemplate(transactionManager);
+        this.transaccion.setReadOnly(true);
+        this.descargas = new Semaphore(simultaneas);
+    }
+
+    /**
+     * Reserva una descarga. Un cliente lento retiene su conexión del pool todo lo que tarda en
+     * leer; sin límite, unas cuantas descargas dejarían sin conexiones al resto de peticiones.
+     *
+     * @return false si ya hay exportacion.simultaneas descargas en curso; si es true, hay que
+     *         llamar a liberar() cuando termine
+     */
+    public boolean reservar() {
+        return descargas.tryAcquire();
+    }
+
+    public void liberar() {
+        descargas.release();
+    }
+
+    /**
+     * Todas las personas por ID: id, nom, mail, victories.
+     */
+    public void exportarPersonas(OutputStream salida, FormatoDatos formato) throws IOException {
+        Escritor escritor = new Escritor(salida, formato);
+        escritor.cabecera("id", "nom", "mail", "victories");
+        recorrer("SELECT id, nom, mail, victories FROM personas ORDER BY id", rs -> {
+            escritor.inicio();
+            escritor.numero("id", rs.getLong(1));
+            escritor.texto("nom", rs.getString(2));
+            escritor.texto("mail", rs.getString(3));
+            escritor.numero("victories", rs.getLong(4));
+            escritor.fin();
+        });
+        escritor.cerrar();
+    }
+
+    /**
+     * Todas las partidas por ID con ganador y jugadores (IDs en el orden del anillo;
+     * en CSV separados por ";").
+     */
+    public void exportarPartidas(OutputStream salida, FormatoDatos formato) throws IOException {
+        Escritor escritor = new Escritor(salida, formato);
+        escritor.cabecera("id", "nom", "estat", "fechaCreacion", "fechaFinalizacion", "ganadorId", "ganador", "jugadores");
+        // Una fila por participante: se agrupan mientras se leen, solo hay una partida en memoria
+        PartidaExportada[] actual = new PartidaExportada[1];
+        recorrer("SELECT k.id, k.nom, k.estat, k.fecha_creacion, k.fecha_finalizacion, k.ganador_id, g.nom, pp.persona_id " +
+                 "FROM partidas k LEFT JOIN personas g ON g.id = k.ganador_id " +
+                 "LEFT JOIN partida_participantes pp ON pp.partida_id = k.id " +
+                 "ORDER BY k.id, pp.posicion", rs -> {
+            long id = rs.getLong(1);
+            if (actual[0] == null || actual[0].id != id) {
+                if (actual[0] != null) {
+                    escribir(escritor, actual[0]);
+                }
+                Long ganadorId = rs.getObject(6) == null ? null : rs.getLong(6);
+                actual[0] = new PartidaExportada(id, rs.getString(2), rs.getBoolean(3),
+                        rs.getObject(4, LocalDateTime.class), rs.getObject(5, LocalDateTime.class),
+                        ganadorId, rs.getString(7));
+            }
+            long jugador = rs.getLong(8);
+            if (!rs.wasNull()) {
+                actual[0].jugadores.add(jugador);
+            }
+        });
+        if (actual[0] != null) {
+            escribir(escritor, actual[0]);
+        }
+        escritor.cerrar();
+    }
+
+    private void escribir(Escritor escritor, PartidaExportada partida) {
+        escritor.inicio();
+        escritor.numero("id", partida.id);
+        escritor.texto("nom", partida.nom);
+        escritor.booleano("estat", partida.estat);
+        escritor.texto("fechaCreacion", partida.fechaCreacion == null ? null : partida.fechaCreacion.toString());
+        escritor.texto("fechaFinalizacion", partida.fechaFinalizacion == null ? null : partida.fechaFinalizacion.toString());
+        escritor.numero("ganadorId", partida.ganadorId);
+        escritor.texto("ganador", partida.ganador);
+        escritor.lista("jugadores", partida.jugadores);
+        escritor.fin();
+    }
+
+    /**
+     * Ejecuta la consulta con un cursor de solo avance y pasa cada fila al manejador.
+     */
+    private void recorrer(String sql, RowCallbackHandler manejador) throws IOException {
+        try {
+            transaccion.executeWithoutResult(estado -> jdbcTemplate.query(conexion -> {
+                PreparedStatement sentencia = conexion.prepareStatement(sql,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                sentencia.setFetchSize(fetchSize);
+                return sentencia;
+            }, manejador));
+        } catch (UncheckedIOException e) {
+            // El cliente ha cortado la descarga
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Escribe registros en CSV (una fila por registro, tras la cabecera) o NDJSON (un objeto
+     * por línea). Los errores de escritura salen como UncheckedIOException para poder
+     * lanzarlos desde el RowCallbackHandler.
+     */
+    private class Escritor {
+
+        private final FormatoDatos formato;
+        private final Writer salida;
+        private final JsonGenerator json;
+        private boolean primerCampo;
+
+        private Escritor(OutputStream destino, FormatoDatos formato) throws IOException {
+            this.formato = formato;
+            this.salida = new BufferedWriter(new OutputStreamWriter(destino, StandardCharsets.UTF_8));
+            if (formato == FormatoDatos.NDJSON) {
+                // Cada objeto en su línea (writeRaw), sin el espacio que Jackson pone entre valores raíz
+                this.json = objectMapper.getFactory().createGenerator(salida).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                this.json.setRootValueSeparator(null);
+            } else {
+                this.json = null;
+            }
+        }
+
+        private void cabecera(String... columnas) {
+            if (formato == FormatoDatos.CSV) {
+                escribir(String.join(",", columnas));
+                escribir("\n");
+            }
+        }
+
+        private void inicio() {
+            if (json != null) {
+                accion(json::writeStartObject);
+            }
+            primerCampo = true;
+        }
+
+        private void fin() {
+            if (json != null) {
+                accion(() -> {
+                    json.writeEndObject();
+                    json.writeRaw('\n');
+                });
+            } else {
+                escribir("\n");
+            }
+        }
+
+        private void texto(String nombre, String valor) {
+            if (json != null) {
+                accion(() -> json.writeStringField(nombre, valor));
+            } else {
+                campo(Csv.campo(valor));
+            }
+        }
+
+        private void numero(String nombre, Long valor) {
+            if (json != null) {
+                accion(() -> {
+                    json.writeFieldName(nombre);
+                    if (valor == null) {
+                        json.writeNull();
+                    } else {
+                        json.writeNumber(valor);
+                    }
+                });
+            } else {
+                campo(valor == null ? "" : valor.toString());
+            }
+        }
+
+        private void booleano(String nombre, boolean valor) {
+            if (json != null) {
+                accion(() -> json.writeBooleanField(nombre, valor));
+            } else {
+                campo(Boolean.toString(valor));
+            }
+        }
+
+        private void lista(String nombre, List<Long> valores) {
+            if (json != null) {
+                accion(() -> {
+                    json.writeArrayFieldStart(nombre);
+                    for (Long valor : valores) {
+                        json.writeNumber(valor);
+                    }
+                    json.writeEndArray();
+                });
+            } else {
+                StringBuilder ids = new StringBuilder();
+                for (Long valor : valores) {
+                    if (ids.length() > 0) {
+                        ids.append(';');
+                    }
+                    ids.append(valor);
+                }
+                campo(ids.toString());
+            }
+        }
+
+        private void campo(String valor) {
+            if (!primerCampo) {
+                escribir(",");
+            }
+            primerCampo = false;
+            escribir(valor);
+        }
+
+        private void escribir(String texto) {
+            accion(() -> salida.write(texto));
+        }
+
+        private void cerrar() throws IOException {
+            if (json != null) {
+                json.flush();
+            }
+            salida.flush();
+        }
+
+        private void accion(AccionEscritura accion) {
+            try {
+                accion.ejecutar();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface AccionEscritura {
+        void ejecutar() throws IOException;
+    }
+
+    private static class PartidaExportada {
+
+        private final long id;
+        private final String nom;
+        private final boolean estat;
+        private final LocalDateTime fechaCreacion;
+        private final LocalDateTime fechaFinalizacion;
+        private final Long ganadorId;
+        private final String ganador;
+        private final List<Long> jugadores = new ArrayList<>();
+
+        private PartidaExportada(long id, String nom, boolean estat, LocalDateTime fechaCreacion,
+                                 LocalDateTime fechaFinalizacion, Long ganadorId, String ganador) {
+            this.id = id;
+            this.nom = nom;
+            this.estat = estat;
+            this.fechaCreacion = fechaCreacion;
+            this.fechaFinalizacion = fechaFinalizacion;
+            this.ganadorId = ganadorId;
+            this.ganador = ganador;
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package org.example.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
+import org.example.Persona;
+import org.example.dto.Csv;
+import org.example.dto.FormatoDatos;
+import org.example.dto.ImportacionDTO;
+import org.example.evento.PersonaEvento;
+import org.example.repository.PersonaRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Importación de personas en bloque desde CSV o NDJSON.
+ *
+ * El cuerpo se lee línea a línea mientras llega y se guarda por bloques de
+ * importacion.tamano-bloque filas, cada uno en su transacción: una consulta para saber qué
+ * emails ya existen y una inserción (COPY en PostgreSQL). En memoria solo hay un bloque y
+ * los emails ya leídos (para detectar repetidos dentro del archivo).
+ *
+ * No es todo o nada: las filas válidas se guardan y cada fila rechazada se informa con su
+ * número de línea.
+ */
+@Service
+@Timed(value = "killerkiss.servicio", histogram = true)
+public class ImportacionPersonas {
+
+    /** Longitud de las columnas nom y mail. */
+    private static final int LONGITUD_MAXIMA = 255;
+
+    @Autowired
+    private PersonaRepository personaRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventos;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${importacion.tamano-bloque:500}")
+    private int tamanoBloque;
+
+    private final TransactionTemplate transaccion;
+
+    public ImportacionPersonas(PlatformTransactionManager transactionManager) {
+        this.transaccion = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Importa las personas del flujo. CSV: la primera línea es la cabecera y tiene que tener
+     * las columnas nom y mail (en cualquier orden; las demás se ignoran, así que sirve un
+     * archivo exportado). NDJSON: un objeto {"nom": ..., "mail": ...} por línea.
+     * Las líneas en blanco se ignoran.
+     *
+     * @throws IllegalArgumentException si la cabecera CSV no es válida (no se ha guardado nada)
+     */
+    public ImportacionDTO importar(InputStream entrada, FormatoDatos formato) throws IOException {
+        ImportacionDTO resultado = new ImportacionDTO();
+        Set<String> mailsLeidos = new HashSet<>();
+        List<Fila> bloque = new ArrayList<>(tamanoBloque);
+        BufferedReader lector = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8));
+
+        int[] columnas = null;
+        long numero = 0;
+        String linea;
+        while ((linea = lector.readLine()) != null) {
+            numero++;
+            if (numero == 1 && linea.startsWith("\uFEFF")) {
+                linea = linea.substring(1); // BOM de los CSV de Excel
+            }
+            if (linea.isBlank()) {
+                continue;
+            }
+            if (formato == FormatoDatos.CSV && columnas == null) {
+                columnas = cabecera(linea);
+                continue;
+            }
+
+            resultado.leida();
+            Persona persona;
+            try {
+                persona = formato == FormatoDatos.CSV ? desdeCsv(linea, columnas) : desdeJson(linea);
+            } catch (IllegalArgumentException e) {
+                resultado.error(numero, null, e.getMessage(), false);
+                continue;
+            }
+            String error = validar(persona);
+            if (error != null) {
+                resultado.error(numero, persona.getMail(), error, false);
+                continue;
+            }
+            if (!mailsLeidos.add(persona.getMail())) {
+                resultado.error(numero, persona.getMail(), "Email repetido en el archivo", true);
+                continue;
+            }
+
+            bloque.add(new Fila(numero, persona));
+            if (bloque.size() >= tamanoBloque) {
+                guardar(bloque, resultado);
+                bloque.clear();
+            }
+        }
+        guardar(bloque, resultado);
+        return resultado;
+    }
+
+    /**
+     * Posición de las columnas nom y mail en la cabecera.
+     */
+    private int[] cabecera(String linea) {
+        List<String> nombres;
+        try {
+            nombres = Csv.leer(linea);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cabecera CSV no válida: " + e.getMessage());
+        }
+        int nom = -1;
+        int mail = -1;
+        for (int i = 0; i < nombres.size(); i++) {
+            String nombre = nombres.get(i).trim().toLowerCase(Locale.ROOT);
+            if (nombre.equals("nom")) {
+                nom = i;
+            } else if (nombre.equals("mail")) {
+                mail = i;
+            }
+        }
+        if (nom < 0 || mail < 0) {
+            throw new IllegalArgumentException("La primera línea del CSV debe ser la cabecera con las columnas nom y mail");
+        }
+        return new int[]{nom, mail};
+    }
+
+    private Persona desdeCsv(String linea, int[] columnas) {
+        List<String> campos = Csv.leer(linea);
+        return new Persona(campo(campos, columnas[0]), campo(campos, columnas[1]));
+    }
+
+    private static String campo(List<String> campos, int posicion) {
+        return posicion < campos.size() ? campos.get(posicion).trim() : null;
+    }
+
+    private Persona desdeJson(String linea) {
+        JsonNode nodo;
+        try {
+            nodo = objectMapper.readTree(linea);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("JSON no válido: " + e.getOriginalMessage());
+        }
+        if (!nodo.isObject()) {
+            throw new IllegalArgumentException("Cada línea debe ser un objeto JSON");
+        }
+        return new Persona(texto(nodo, "nom"), texto(nodo, "mail"));
+    }
+
+    private static String texto(JsonNode nodo, String campo) {
+        JsonNode valor = nodo.get(campo);
+        return valor == null || valor.isNull() ? null : valor.asText().trim();
+    }
+
+    /**
+     * Las mismas validaciones que PersonaService.crear (salvo el email único, que se
+     * comprueba por bloques). Devuelve el error o null si la persona es válida.
+     */
+    private static String validar(Persona persona) {
+        if (persona.getNom() == null || persona.getNom().isEmpty()) {
+            return "El nombre es obligatorio";
+        }
+        if (persona.getMail() == null || persona.getMail().isEmpty()) {
+            return "El email es obligatorio";
+        }
+        if (persona.getNom().length() > LONGITUD_MAXIMA || persona.getMail().length() > LONGITUD_MAXIMA) {
+            return "El nombre y el email no pueden tener más de " + LONGITUD_MAXIMA + " caracteres";
+        }
+        return null;
+    }
+
+    /**
+     * Guarda un bloque en una transacción. Si otra petición registra a la vez alguno de los
+     * emails, el INSERT falla por la restricción única: se repite una vez, y la consulta de
+     * emails existentes ya lo encuentra.
+     */
+    private void guardar(List<Fila> bloque, ImportacionDTO resultado) {
+        if (bloque.isEmpty()) {
+            return;
+        }
+        for (int intento = 1; ; intento++) {
+            try {
+                Set<String> existentes = transaccion.execute(estado -> insertar(bloque));
+                for (Fila fila : bloque) {
+                    if (existentes.contains(fila.persona.getMail())) {
+                        resultado.error(fila.numero, fila.persona.getMail(), "El email ya está registrado", true);
+                    }
+                }
+                resultado.creadas(bloque.size() - existentes.size());
+                return;
+            } catch (DataIntegrityViolationException e) {
+                if (intento >= 2) {
+                    String error = "No se ha podido guardar el bloque: " + e.getMostSpecificCause().getMessage();
+                    for (Fila fila : bloque) {
+                        resultado.error(fila.numero, fila.persona.getMail(), error, false);
+                    }
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Inserta las personas del bloque cuyo email no existe y devuelve los que ya existían.
+     */
+    private Set<String> insertar(List<Fila> bloque) {
+        List<String> mails = new ArrayList<>(bloque.size());
+        for (Fila fila : bloque) {
+            mails.add(fila.persona.getMail());
+        }
+        Set<String> existentes = new HashSet<>(personaRepository.findMailsExistentes(mails));
+
+        List<Persona> nuevas = new ArrayList<>(bloque.size());
+        for (Fila fila : bloque) {
+            if (!existentes.contains(fila.persona.getMail())) {
+                // Persona nueva en cada intento: el anterior puede haberle asignado un ID
+                nuevas.add(new Persona(fila.persona.getNom(), fila.persona.getMail()));
+            }
+        }
+        personaRepository.insertarEnLote(nuevas);
+        for (Persona persona : nuevas) {
+            eventos.publishEvent(PersonaEvento.creada(persona));
+        }
+        return existentes;
+    }
+
+    private static class Fila {
+
+        private final long numero;
+        private final Persona persona;
+
+        private Fila(long numero, Persona persona) {
+            this.numero = numero;
+            this.persona = persona;
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package org.example.service;
+
+import org.example.Persona;
+import org.example.evento.PersonaEvento;
+import org.example.repository.PersonaRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice del ranking en memoria.
+ * Se carga una vez al arrancar y se mantiene al día con los eventos de PersonaEvento,
+ * de modo que /api/personas/ranking no ordena la tabla personas en cada petición.
+ *
+ * Las personas se agrupan por victorias (de mayor a menor) y, dentro de cada grupo,
+ * por ID. El top-K recorre solo los primeros grupos y la posición de un jugador suma
+ * los tamaños de los grupos con más victorias, que en la práctica son pocos.
+ *
+ * Los eventos que llegan antes de terminar la carga se guardan y se aplican después: la
+ * lectura de la base de datos puede haber empezado antes de su commit.
+ */
+@Component
+public class IndiceRanking {
+
+    @Autowired
+    private PersonaRepository personaRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Persona> porId = new HashMap<>();
+    private final TreeMap<Integer, TreeMap<Long, Persona>> porVictorias = new TreeMap<>(Comparator.reverseOrder());
+    /** Eventos recibidos antes de la carga, en orden de llegada. */
+    private final ArrayDeque<PersonaEvento> pendientes = new ArrayDeque<>();
+
+    /** Número de cambios aplicados; permite descartar verificaciones que se solapan con escrituras. */
+    private long cambiosAplicados = 0;
+    private boolean cargado = false;
+
+    /**
+     * Carga el índice desde la base de datos al arrancar la aplicación.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargar() {
+        List<Persona> personas = personaRepository.findAll();
+        lock.writeLock().lock();
+        try {
+            if (!cargado) {
+                reconstruir(personas);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Devuelve las K primeras personas del ranking (todas si limite es null).
+     */
+    public List<Persona> top(Integer limite) {
+        asegurarCargado();
+        int maximo = limite == null ? Integer.MAX_VALUE : Math.max(0, limite);
+        lock.readLock().lock();
+        try {
+            List<Persona> resultado = new ArrayList<>(Math.min(maximo, porId.size()));
+            for (TreeMap<Long, Persona> grupo : porVictorias.values()) {
+                for (Persona persona : grupo.values()) {
+                    if (resultado.size() >= maximo) {
+                        return resultado;
+                    }
+                    resultado.add(persona);
+                }
+            }
+            return resultado;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Devuelve la posición (empezando en 1) de una persona en el ranking, o -1 si no existe.
+     */
+    public int posicion(Long personaId) {
+        asegurarCargado();
+        lock.readLock().lock();
+        try {
+            Persona persona = porId.get(personaId);
+            if (persona == null) {
+                return -1;
+            }
+            int delante = 0;
+            for (TreeMap<Long, Persona> grupo : porVictorias.headMap(persona.getVictories(), false).values()) {
+                delante += grupo.size();
+            }
+            delante += porVictorias.get(persona.getVictories()).headMap(personaId, false).size();
+            return delante + 1;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Copia de una persona del índice, o null si no existe. Es una copia para que quien la
+     * lea fuera del lock (CanalEnVivo, en otro hilo) no comparta el objeto del índice.
+     */
+    public Persona buscar(Long personaId) {
+        asegurarCargado();
+        lock.readLock().lock();
+        try {
+            Persona persona = porId.get(personaId);
+            return persona == null ? null
+                    : new Persona(persona.getId(), persona.getNom(), persona.getMail(), persona.getVictories());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Número de personas en el índice.
+     */
+    public int total() {
+        asegurarCargado();
+        lock.readLock().lock();
+        try {
+            return porId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Aplica los cambios de personas una vez confirmados en la base de datos.
+     * Se ejecuta antes que CanalEnVivo, que publica el ranking ya actualizado.
+     */
+    @Order(0)
+    @TransactionalEventListener
+    public void alCambiarPersona(PersonaEvento evento) {
+        lock.writeLock().lock();
+        try {
+            if (!cargado) {
+                // Puede que la carga en curso no lo vea: se aplica cuando termine
+                pendientes.add(evento);
+                return;
+            }
+            aplicar(evento);
+            cambiosAplicados++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * VICTORIA trae las victorias ya sumadas. Si dos victorias de la misma persona se
+     * confirman a la vez sus eventos pueden llegar en otro orden: se queda con el mayor valor.
+     * Una VICTORIA de alguien que no está en el índice se ignora: solo puede ser de una persona
+     * ya eliminada (su CREADA siempre llega antes) y no debe volver al ranking.
+     */
+    private void aplicar(PersonaEvento evento) {
+        switch (evento.getTipo()) {
+            case CREADA, ACTUALIZADA -> {
+                quitar(evento.getPersonaId());
+                poner(evento.getPersona());
+            }
+            case ELIMINADA -> quitar(evento.getPersonaId());
+            case VICTORIA -> {
+                Persona nueva = evento.getPersona();
+                Persona actual = quitar(evento.getPersonaId());
+                if (actual == null) {
+                    return;
+                }
+                poner(actual.getVictories() > nueva.getVictories() ? actual : nueva);
+            }
+        }
+    }
+
+    /**
+     * Verificación periódica contra la base de datos.
+     */
+    @Scheduled(fixedDelayString = "${ranking.verificacion-ms:300000}", initialDelayString = "${ranking.verificacion-ms:300000}")
+    public void verificacionPeriodica() {
+        verificarConsistencia();
+    }
+
+    /**
+     * Compara el índice con la tabla personas y lo reconstruye si hay diferencias.
+     * Si llega algún evento mientras se lee la base de datos, la comparación se descarta
+     * y se repetirá en la siguiente ejecución.
+     *
+     * @return true si el índice coincidía con la base de datos
+     */
+    public boolean verificarConsistencia() {
+        long cambiosAntes;
+        lock.readLock().lock();
+        try {
+            cambiosAntes = cambiosAplicados;
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Persona> personas = personaRepository.findAll();
+
+        lock.writeLock().lock();
+        try {
+            if (cambiosAplicados != cambiosAntes) {
+                return true;
+            }
+            boolean coincide = cargado && personas.size() == porId.size();
+            for (int i = 0; coincide && i < personas.size(); i++) {
+                Persona enBd = personas.get(i);
+                Persona enIndice = porId.get(enBd.getId());
+                coincide = enIndice != null && enIndice.equals(enBd);
+            }
+            if (!coincide) {
+                System.err.println("✗ Ranking en memoria desincronizado con la base de datos, se reconstruye");
+                reconstruir(personas);
+            }
+            return coincide;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void asegurarCargado() {
+        lock.readLock().lock();
+        try {
+            if (cargado) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        cargar();
+    }
+
+    private void reconstruir(List<Persona> personas) {
+        porId.clear();
+        porVictorias.clear();
+        for (Persona persona : personas) {
+            poner(new Persona(persona.getId(), persona.getNom(), persona.getMail(), persona.getVictories()));
+        }
+        cargado = true;
+        while (!pendientes.isEmpty()) {
+            aplicar(pendientes.poll());
+        }
+    }
+
+    private void poner(Persona persona) {
+        porId.put(persona.getId(), persona);
+        porVictorias.computeIfAbsent(persona.getVictories(), v -> new TreeMap<>()).put(persona.getId(), persona);
+    }
+
+    private Persona quitar(Long personaId) {
+        Persona persona = porId.remove(personaId);
+        if (persona != null) {
+            TreeMap<Long, Persona> grupo = porVictorias.get(persona.getVictories());
+            grupo.remove(personaId);
+            if (grupo.isEmpty()) {
+                porVictorias.remove(persona.getVictories());
+            }
+        }
+        return persona;
+    }
+}
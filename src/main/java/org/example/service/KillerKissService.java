@@ -1,27 +1,50 @@
 package org.example.service;
 
+import io.micrometer.core.annotation.Timed;
 import org.example.KillerKiss;
 import org.example.Persona;
+import org.example.dto.Cursor;
+import org.example.dto.PaginaDTO;
+import org.example.evento.PartidaEvento;
+import org.example.repository.EmailOutboxRepository;
 import org.example.repository.KillerKissRepository;
+import org.example.repository.KillerKissRepository.ResumenPartida;
+import org.example.repository.PartidaEliminacionRepository;
 import org.example.repository.PersonaRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Service que contiene la lógica de negocio para gestionar Partidas de Killer
  * Kiss.
  */
 @Service
+@Timed(value = "killerkiss.servicio", histogram = true)
 @Transactional
 public class KillerKissService {
 
+    /** Partidas como máximo en un POST /api/partidas/lote. */
+    private static final int MAXIMO_LOTE = 500;
+
+    /** Fecha que se pasa a findIdsPaginaPorFecha cuando el cursor no tiene fecha; no se compara. */
+    private static final LocalDateTime FECHA_IGNORADA = LocalDateTime.of(1970, 1, 1, 0, 0);
+
     @Autowired
     private KillerKissRepository partidaRepository;
 
@@ -31,38 +54,215 @@ public class KillerKissService {
     @Autowired
     private PersonaService personaService;
 
+    @Autowired
+    private ContadoresEstadisticas contadoresEstadisticas;
+
+    @Autowired
+    private EmailOutboxService emailOutboxService;
+
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @Autowired
+    private PartidaEliminacionRepository eliminacionRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventos;
+
     /**
-     * Obtiene todas las partidas.
+     * Obtiene el resumen de todas las partidas.
      */
-    public List<KillerKiss> listarTodas() {
-        return partidaRepository.findAll();
+    @Transactional(readOnly = true)
+    public List<ResumenPartida> listarTodas() {
+        return partidaRepository.findResumenes();
     }
 
     /**
-     * Obtiene todas las partidas activas.
+     * Obtiene el resumen de las partidas activas.
      */
-    public List<KillerKiss> listarActivas() {
-        return partidaRepository.findByEstatTrue();
+    @Transactional(readOnly = true)
+    public List<ResumenPartida> listarActivas() {
+        return partidaRepository.findResumenesByEstat(true);
     }
 
     /**
-     * Obtiene todas las partidas finalizadas.
+     * Obtiene el resumen de las partidas finalizadas.
      */
-    public List<KillerKiss> listarFinalizadas() {
-        return partidaRepository.findByEstatFalse();
+    @Transactional(readOnly = true)
+    public List<ResumenPartida> listarFinalizadas() {
+        return partidaRepository.findResumenesByEstat(false);
+    }
+
+    /**
+     * Obtiene una página de partidas filtrada por estado ("activas", "finalizadas" o "todas")
+     * y ordenada por "id" o "fechaCreacion", ambas de más reciente a más antigua.
+     * Primero se paginan los IDs y después se carga el resumen de solo esas partidas.
+     */
+    @Transactional(readOnly = true)
+    public PaginaDTO<ResumenPartida> listarPagina(String estado, String orden, String cursor, Integer limite) {
+        List<Boolean> estados;
+        if (estado == null || estado.isBlank() || estado.equals("todas")) {
+            estados = List.of(true, false);
+        } else if (estado.equals("activas")) {
+            estados = List.of(true);
+        } else if (estado.equals("finalizadas")) {
+            estados = List.of(false);
+        } else {
+            throw new IllegalArgumentException("Estado no soportado: " + estado);
+        }
+
+        String ordenEfectivo = (orden == null || orden.isBlank()) ? "id" : orden;
+        Cursor anterior = (cursor == null || cursor.isBlank()) ? null : Cursor.decodificar(cursor, ordenEfectivo);
+        int tamano = Cursor.normalizarLimite(limite);
+        PageRequest pagina = PageRequest.ofSize(tamano + 1);
+
+        List<Long> ids;
+        if (ordenEfectivo.equals("id")) {
+            long antesDe = anterior != null ? anterior.getId() : Long.MAX_VALUE;
+            ids = partidaRepository.findIdsPaginaPorId(estados, antesDe, pagina);
+        } else if (ordenEfectivo.equals(Cursor.ORDEN_FECHA)) {
+            // Sin cursor se empieza como tras una fila sin fecha con el ID máximo: todas entran
+            LocalDateTime fecha = anterior != null ? anterior.getFecha() : null;
+            long id = anterior != null ? anterior.getId() : Long.MAX_VALUE;
+            ids = partidaRepository.findIdsPaginaPorFecha(estados, fecha == null,
+                    fecha != null ? fecha : FECHA_IGNORADA, id, pagina);
+        } else {
+            throw new IllegalArgumentException("Orden no soportado: " + ordenEfectivo);
+        }
+
+        boolean hayMas = ids.size() > tamano;
+        if (hayMas) {
+            ids = ids.subList(0, tamano);
+        }
+        if (ids.isEmpty()) {
+            return new PaginaDTO<>(List.of(), null);
+        }
+
+        // findResumenesByIdIn no garantiza el orden: se reordena según la página de IDs
+        Map<Long, Integer> posiciones = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            posiciones.put(ids.get(i), i);
+        }
+        List<ResumenPartida> partidas = new ArrayList<>(partidaRepository.findResumenesByIdIn(ids));
+        partidas.sort(Comparator.comparing(p -> posiciones.get(p.getId())));
+
+        if (!hayMas) {
+            return new PaginaDTO<>(partidas, null);
+        }
+        ResumenPartida ultima = partidas.get(partidas.size() - 1);
+        Cursor siguiente = ordenEfectivo.equals(Cursor.ORDEN_FECHA)
+                ? Cursor.deFecha(ultima.getFechaCreacion(), ultima.getId())
+                : new Cursor(ordenEfectivo, "", ultima.getId());
+        return new PaginaDTO<>(partidas, siguiente.codificar());
     }
 
     /**
      * Busca una partida por ID.
      */
     public Optional<KillerKiss> buscarPorId(Long id) {
-        return partidaRepository.findById(id);
+        return partidaRepository.findConParticipantesById(id);
     }
 
     /**
      * Crea una nueva partida con validaciones.
      */
     public KillerKiss crear(KillerKiss partida) {
+        return crear(partida, "es");
+    }
+
+    /**
+     * Crea una nueva partida con validaciones.
+     * Si el envío desde el servidor está activo, los emails de la partida se escriben
+     * en el outbox en la misma transacción y los envían los workers en segundo plano.
+     */
+    public KillerKiss crear(KillerKiss partida, String idioma) {
+        validarNueva(partida);
+
+        // IMPORTANTE: Cargar las personas completas desde la base de datos (una sola consulta)
+        Map<Long, Persona> personas = cargarPersonas(List.of(partida));
+        prepararNueva(partida, personas);
+
+        // Guardar en base de datos. El nombre repetido lo detecta el índice único de partidas
+        // activas (también con dos altas a la vez); saveAndFlush hace que el INSERT falle aquí
+        // y no al confirmar la transacción
+        KillerKiss partidaGuardada;
+        try {
+            partidaGuardada = partidaRepository.saveAndFlush(partida);
+        } catch (DataIntegrityViolationException e) {
+            if (esNombreActivoRepetido(e)) {
+                throw new IllegalArgumentException("Ya existe una partida activa con ese nombre");
+            }
+            throw e;
+        }
+        eventos.publishEvent(PartidaEvento.creada(partidaGuardada.getId()));
+
+        if (emailOutboxService.isHabilitado()) {
+            emailOutboxService.encolarPartida(partidaGuardada, idioma);
+        }
+        // Si no, los correos se envían desde el navegador con el endpoint enviar-correos
+
+        return partidaGuardada;
+    }
+
+    /**
+     * Crea varias partidas en una sola transacción (por ejemplo, todas las de un torneo).
+     * Se valida todo antes de escribir nada: si una partida no es válida no se crea ninguna.
+     * Las partidas y sus participantes se insertan con lotes JDBC.
+     */
+    public List<KillerKiss> crearLote(List<KillerKiss> partidas, String idioma) {
+        if (partidas == null || partidas.isEmpty()) {
+            throw new IllegalArgumentException("El lote no contiene partidas");
+        }
+        if (partidas.size() > MAXIMO_LOTE) {
+            throw new IllegalArgumentException("Como máximo " + MAXIMO_LOTE + " partidas por lote");
+        }
+        Set<String> nombres = new HashSet<>();
+        for (KillerKiss partida : partidas) {
+            validarNueva(partida);
+            if (!nombres.add(partida.getNom())) {
+                throw new IllegalArgumentException("Nombre repetido en el lote: " + partida.getNom());
+            }
+        }
+        // Solo para enumerar los nombres en el error: el índice único cubre las altas simultáneas
+        List<String> activas = partidaRepository.findNomsActivos(nombres);
+        if (!activas.isEmpty()) {
+            throw new IllegalArgumentException("Ya existe una partida activa con ese nombre: " + String.join(", ", activas));
+        }
+
+        Map<Long, Persona> personas = cargarPersonas(partidas);
+        for (KillerKiss partida : partidas) {
+            prepararNueva(partida, personas);
+        }
+        try {
+            partidaRepository.insertarEnLote(partidas);
+        } catch (DataIntegrityViolationException e) {
+            if (esNombreActivoRepetido(e)) {
+                throw new IllegalArgumentException("Ya existe una partida activa con alguno de esos nombres");
+            }
+            throw e;
+        }
+
+        for (KillerKiss partida : partidas) {
+            eventos.publishEvent(PartidaEvento.creada(partida.getId()));
+            if (emailOutboxService.isHabilitado()) {
+                emailOutboxService.encolarPartida(partida, idioma);
+            }
+        }
+        return partidas;
+    }
+
+    /**
+     * Si el error viene del índice único uk_partidas_nom_activa (migración V3).
+     */
+    private static boolean esNombreActivoRepetido(DataIntegrityViolationException e) {
+        String mensaje = e.getMostSpecificCause().getMessage();
+        return mensaje != null && mensaje.toLowerCase().contains("uk_partidas_nom_activa");
+    }
+
+    /**
+     * Validaciones de una partida nueva que no necesitan la base de datos.
+     */
+    private void validarNueva(KillerKiss partida) {
         // Validación: nombre obligatorio
         if (partida.getNom() == null || partida.getNom().trim().isEmpty()) {
             throw new IllegalArgumentException("El nombre de la partida es obligatorio");
@@ -73,102 +273,134 @@ public class KillerKissService {
             throw new IllegalArgumentException("Se necesitan al menos 2 jugadores para crear una partida");
         }
 
-        // Validación: no puede haber otra partida activa con el mismo nombre
-        if (partidaRepository.existsByNomAndEstatTrue(partida.getNom())) {
-            throw new IllegalArgumentException("Ya existe una partida activa con ese nombre");
+        Set<Long> ids = new HashSet<>();
+        for (Persona p : partida.getPersonas()) {
+            if (p == null || p.getId() == null) {
+                throw new IllegalArgumentException("Todos los jugadores deben tener ID");
+            }
+            if (!ids.add(p.getId())) {
+                throw new IllegalArgumentException("Jugador repetido en la partida: " + p.getId());
+            }
+        }
+    }
+
+    /**
+     * Carga con un único findAllById a todos los jugadores de las partidas.
+     * Si falta alguno, el error los enumera todos.
+     */
+    private Map<Long, Persona> cargarPersonas(List<KillerKiss> partidas) {
+        Set<Long> ids = new LinkedHashSet<>();
+        for (KillerKiss partida : partidas) {
+            for (Persona p : partida.getPersonas()) {
+                ids.add(p.getId());
+            }
+        }
+        Map<Long, Persona> personas = new HashMap<>(ids.size() * 2);
+        for (Persona persona : personaRepository.findAllById(ids)) {
+            personas.put(persona.getId(), persona);
+        }
+        if (personas.size() < ids.size()) {
+            List<String> faltan = new ArrayList<>();
+            for (Long id : ids) {
+                if (!personas.containsKey(id)) {
+                    faltan.add(id.toString());
+                }
+            }
+            throw new IllegalArgumentException("Personas no encontradas con ID: " + String.join(", ", faltan));
         }
+        return personas;
+    }
 
-        // IMPORTANTE: Cargar las personas completas desde la base de datos
-        List<Persona> personasCompletas = new java.util.ArrayList<>();
+    /**
+     * Sustituye los jugadores por los cargados, mezcla el anillo y deja la partida activa.
+     */
+    private void prepararNueva(KillerKiss partida, Map<Long, Persona> personas) {
+        List<Persona> personasCompletas = new ArrayList<>(partida.getPersonas().size());
         for (Persona p : partida.getPersonas()) {
-            Persona personaCompleta = personaRepository.findById(p.getId())
-                .orElseThrow(() -> new RuntimeException("Persona no encontrada con ID: " + p.getId()));
-            personasCompletas.add(personaCompleta);
+            personasCompletas.add(personas.get(p.getId()));
         }
         partida.setPersonas(personasCompletas);
 
         // Establecer fecha de creación
-        partida.setFechaCreacion(java.time.LocalDateTime.now());
+        partida.setFechaCreacion(LocalDateTime.now());
 
         // Mezclar y asignar víctimas
         partida.sortPersonas();
 
         // Iniciar la partida
         partida.iniciarPartida();
-
-        // Guardar en base de datos
-        KillerKiss partidaGuardada = partidaRepository.save(partida);
-
-        // NO enviar correos aquí - se enviarán desde el endpoint separado después
-
-        return partidaGuardada;
     }
 
     /**
      * Finaliza una partida y declara un ganador.
+     * La transición activa → finalizada y la comprobación de que el ganador participa
+     * se hacen en un único UPDATE condicional; la victoria se suma con un incremento atómico.
+     * Si dos administradores finalizan a la vez, solo uno de ellos suma la victoria.
      */
     public KillerKiss finalizarPartida(Long partidaId, Long ganadorId) {
-        // Validar que la partida existe
-        KillerKiss partida = partidaRepository.findById(partidaId)
-                .orElseThrow(() -> new RuntimeException("Partida no encontrada con ID: " + partidaId));
-
-        // Validar que la partida está activa
-        if (!partida.isEstat()) {
-            throw new IllegalStateException("La partida ya está finalizada");
-        }
-
-        // Validar que el ganador existe
-        Persona ganador = personaRepository.findById(ganadorId)
-                .orElseThrow(() -> new RuntimeException("Ganador no encontrado con ID: " + ganadorId));
-
-        // Validar que el ganador está en la partida
-        if (!partida.getPersonas().contains(ganador)) {
-            throw new IllegalArgumentException("El ganador no está participando en esta partida");
+        int finalizadas = partidaRepository.finalizarSiActiva(partidaId, ganadorId, LocalDateTime.now());
+        if (finalizadas == 0) {
+            throw motivoFinalizacionRechazada(partidaId, ganadorId);
         }
 
         // Sumar victoria al ganador
         personaService.sumarVictoria(ganadorId);
+        eventos.publishEvent(PartidaEvento.finalizada(partidaId));
 
-        // Finalizar partida
-        partida.acavarPartida(ganador);
-
-        // Guardar cambios
-        KillerKiss partidaFinalizada = partidaRepository.save(partida);
+        return partidaRepository.findConParticipantesById(partidaId)
+                .orElseThrow(() -> new RuntimeException("Partida no encontrada con ID: " + partidaId));
+    }
 
-        return partidaFinalizada;
+    /**
+     * Averigua por qué no se ha podido finalizar una partida (solo en el camino de error).
+     */
+    private RuntimeException motivoFinalizacionRechazada(Long partidaId, Long ganadorId) {
+        Optional<Boolean> estat = partidaRepository.findEstatById(partidaId);
+        if (estat.isEmpty()) {
+            return new RuntimeException("Partida no encontrada con ID: " + partidaId);
+        }
+        if (!estat.get()) {
+            return new IllegalStateException("La partida ya está finalizada");
+        }
+        if (!personaRepository.existsById(ganadorId)) {
+            return new RuntimeException("Ganador no encontrado con ID: " + ganadorId);
+        }
+        return new IllegalArgumentException("El ganador no está participando en esta partida");
     }
 
     /**
      * Elimina una partida.
      */
     public void eliminar(Long id) {
-        if (!partidaRepository.existsById(id)) {
-            throw new RuntimeException("Partida no encontrada con ID: " + id);
-        }
+        boolean estabaActiva = partidaRepository.findEstatById(id)
+                .orElseThrow(() -> new RuntimeException("Partida no encontrada con ID: " + id));
+        emailOutboxRepository.borrarPorPartida(id);
+        eliminacionRepository.borrarPorPartida(id);
         partidaRepository.deleteById(id);
+        eventos.publishEvent(PartidaEvento.eliminada(id, estabaActiva));
     }
 
     /**
      * Obtiene estadísticas generales.
+     * Se sirven desde los contadores en memoria; solo se consulta la base de datos
+     * (una única consulta agregada) cuando la instantánea ha caducado. No abre transacción,
+     * pero se une a la del llamador si la hay (la del dashboard: misma conexión).
      */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public EstadisticasDTO obtenerEstadisticas() {
-        long totalPartidas = partidaRepository.count();
-        long partidasActivas = partidaRepository.countByEstat(true);
-        long partidasFinalizadas = partidaRepository.countByEstat(false);
-        long totalJugadores = personaRepository.count();
-
-        return new EstadisticasDTO(totalPartidas, partidasActivas, partidasFinalizadas, totalJugadores);
+        return contadoresEstadisticas.obtener();
     }
 
     /**
-     * Calcula las asignaciones de la partida (jugador → víctima)
+     * Calcula las asignaciones de la partida (jugador → víctima) a partir del orden del anillo
      * y devuelve la lista para que el frontend envíe los emails via EmailJS.
+     * No escribe nada: el orden ya se guardó al crear la partida.
      * @param idioma Parámetro mantenido por compatibilidad (no usado en backend)
      */
+    @Transactional(readOnly = true)
     public ResultadoEnvioDTO obtenerAsignacionesPartida(KillerKiss partida, String idioma) {
         ResultadoEnvioDTO resultado = new ResultadoEnvioDTO();
         List<Persona> participantes = partida.getPersonas();
-        Map<String, String> asignaciones = new HashMap<>();
 
         for (int i = 0; i < participantes.size(); i++) {
             Persona jugador = participantes.get(i);
@@ -182,14 +414,9 @@ public class KillerKissService {
                 continue;
             }
 
-            // Guardar asignación (email jugador → nombre víctima) para posible reenvío
-            asignaciones.put(jugador.getMail(), nombreVictima);
             resultado.agregarResultado(nombreJugador, jugador.getMail(), true, "Listo para enviar via EmailJS", nombreVictima);
         }
 
-        partida.setAsignaciones(asignaciones);
-        partidaRepository.save(partida);
-
         resultado.setPartidaId(partida.getId());
         return resultado;
     }
@@ -0,0 +1,274 @@
+package org.example.service;
+
+import io.micrometer.core.annotation.Timed;
+import org.example.entity.PartidaEliminacion;
+import org.example.evento.PartidaEvento;
+import org.example.repository.KillerKissRepository;
+import org.example.repository.PartidaEliminacionRepository;
+import org.example.repository.PersonaRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Motor de juego de las partidas activas.
+ *
+ * Mantiene en memoria un AnilloCaza por partida, reconstruido desde la base de datos
+ * (orden de participantes + eliminaciones en orden) la primera vez que se usa.
+ * Cada eliminación se guarda en partida_eliminaciones y solo se aplica al anillo después
+ * del commit; cuando queda un único jugador, la partida se finaliza con él como ganador.
+ * Antes de guardarla se bloquea la fila de la partida y se comprueba que sigue activa, así
+ * no se registran eliminaciones en una partida que otra petición acaba de finalizar.
+ */
+@Service
+@Timed(value = "killerkiss.servicio", histogram = true)
+public class MotorPartida {
+
+    @Autowired
+    private KillerKissRepository partidaRepository;
+
+    @Autowired
+    private PartidaEliminacionRepository eliminacionRepository;
+
+    @Autowired
+    private PersonaRepository personaRepository;
+
+    @Autowired
+    private KillerKissService partidaService;
+
+    private final TransactionTemplate transaccion;
+    private final Map<Long, AnilloCaza> anillos = new ConcurrentHashMap<>();
+
+    public MotorPartida(PlatformTransactionManager transactionManager) {
+        this.transaccion = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Registra que el cazador ha eliminado a su objetivo.
+     */
+    public EliminacionDTO eliminar(Long partidaId, Long cazadorId) {
+        AnilloCaza anillo = anillo(partidaId);
+        synchronized (anillo) {
+            long victimaId = anillo.objetivo(cazadorId);
+            long nuevoObjetivoId = anillo.objetivo(victimaId);
+            int paso = anillo.getEliminaciones() + 1;
+            boolean ultima = anillo.getVivos() == 2;
+
+            try {
+                transaccion.executeWithoutResult(estado -> {
+                    boolean activa = partidaRepository.bloquearEstatById(partidaId)
+                            .orElseThrow(() -> new RuntimeException("Partida no encontrada con ID: " + partidaId));
+                    if (!activa) {
+                        throw new IllegalStateException("La partida ya está finalizada");
+                    }
+                    eliminacionRepository.save(new PartidaEliminacion(partidaId, paso, cazadorId, victimaId, nuevoObjetivoId));
+                    if (ultima) {
+                        partidaService.finalizarPartida(partidaId, cazadorId);
+                    }
+                });
+            } catch (DataIntegrityViolationException e) {
+                // Otra instancia ha registrado una eliminación a la vez: se recargará desde la BD
+                anillos.remove(partidaId, anillo);
+                throw new IllegalStateException("La partida ha cambiado, vuelve a intentarlo");
+            } catch (RuntimeException e) {
+                // Finalizada o borrada mientras tanto: el anillo en memoria ya no vale
+                anillos.remove(partidaId, anillo);
+                throw e;
+            }
+
+            anillo.eliminar(cazadorId);
+            return new EliminacionDTO(paso, cazadorId, victimaId,
+                    ultima ? null : nuevoObjetivoId, anillo.getVivos(), anillo.ganador());
+        }
+    }
+
+    /**
+     * Objetivo actual de un jugador vivo.
+     */
+    public ObjetivoDTO obtenerObjetivo(Long partidaId, Long personaId) {
+        AnilloCaza anillo = anillo(partidaId);
+        long objetivoId;
+        synchronized (anillo) {
+            objetivoId = anillo.objetivo(personaId);
+        }
+        String nombre = personaRepository.findById(objetivoId).map(p -> p.getNom()).orElse(null);
+        return new ObjetivoDTO(personaId, objetivoId, nombre);
+    }
+
+    /**
+     * Estado del anillo de una partida, comprobando su integridad (O(n)).
+     */
+    public EstadoAnilloDTO obtenerEstado(Long partidaId) {
+        AnilloCaza anillo = anillo(partidaId);
+        synchronized (anillo) {
+            return new EstadoAnilloDTO(partidaId, anillo.getTotal(), anillo.getVivos(),
+                    anillo.getEliminaciones(), anillo.verificar());
+        }
+    }
+
+    /**
+     * Las partidas finalizadas o borradas dejan de ocupar memoria.
+     */
+    @TransactionalEventListener
+    public void alCambiarPartida(PartidaEvento evento) {
+        if (evento.getTipo() != PartidaEvento.Tipo.CREADA) {
+            anillos.remove(evento.getPartidaId());
+        }
+    }
+
+    private AnilloCaza anillo(Long partidaId) {
+        AnilloCaza anillo = anillos.get(partidaId);
+        if (anillo != null) {
+            return anillo;
+        }
+        AnilloCaza cargado = cargar(partidaId);
+        AnilloCaza previo = anillos.putIfAbsent(partidaId, cargado);
+        return previo != null ? previo : cargado;
+    }
+
+    /**
+     * Reconstruye el anillo: orden inicial de participantes y eliminaciones aplicadas en orden.
+     */
+    private AnilloCaza cargar(Long partidaId) {
+        return transaccion.execute(estado -> {
+            boolean activa = partidaRepository.findEstatById(partidaId)
+                    .orElseThrow(() -> new RuntimeException("Partida no encontrada con ID: " + partidaId));
+            if (!activa) {
+                throw new IllegalStateException("La partida ya está finalizada");
+            }
+            List<Long> participantes = partidaRepository.findIdsParticipantes(partidaId);
+            AnilloCaza anillo = new AnilloCaza(participantes);
+            for (PartidaEliminacion eliminacion : eliminacionRepository.findByPartidaIdOrderByPasoAsc(partidaId)) {
+                long victima = anillo.eliminar(eliminacion.getCazadorId());
+                if (victima != eliminacion.getVictimaId()) {
+                    throw new IllegalStateException("Las eliminaciones guardadas no coinciden con el anillo de la partida");
+                }
+            }
+            if (!anillo.verificar()) {
+                throw new IllegalStateException("El anillo de la partida no es válido");
+            }
+            return anillo;
+        });
+    }
+
+    /**
+     * Clase interna para devolver el resultado de una eliminación.
+     */
+    public static class EliminacionDTO {
+
+        private int paso;
+        private Long cazadorId;
+        private Long victimaId;
+        private Long nuevoObjetivoId;
+        private int jugadoresVivos;
+        private Long ganadorId;
+
+        public EliminacionDTO(int paso, Long cazadorId, Long victimaId, Long nuevoObjetivoId, int jugadoresVivos, Long ganadorId) {
+            this.paso = paso;
+            this.cazadorId = cazadorId;
+            this.victimaId = victimaId;
+            this.nuevoObjetivoId = nuevoObjetivoId;
+            this.jugadoresVivos = jugadoresVivos;
+            this.ganadorId = ganadorId;
+        }
+
+        public int getPaso() {
+            return paso;
+        }
+
+        public Long getCazadorId() {
+            return cazadorId;
+        }
+
+        public Long getVictimaId() {
+            return victimaId;
+        }
+
+        public Long getNuevoObjetivoId() {
+            return nuevoObjetivoId;
+        }
+
+        public int getJugadoresVivos() {
+            return jugadoresVivos;
+        }
+
+        public Long getGanadorId() {
+            return ganadorId;
+        }
+    }
+
+    /**
+     * Clase interna para devolver el objetivo de un jugador.
+     */
+    public static class ObjetivoDTO {
+
+        private Long personaId;
+        private Long objetivoId;
+        private String objetivoNom;
+
+        public ObjetivoDTO(Long personaId, Long objetivoId, String objetivoNom) {
+            this.personaId = personaId;
+            this.objetivoId = objetivoId;
+            this.objetivoNom = objetivoNom;
+        }
+
+        public Long getPersonaId() {
+            return personaId;
+        }
+
+        public Long getObjetivoId() {
+            return objetivoId;
+        }
+
+        public String getObjetivoNom() {
+            return objetivoNom;
+        }
+    }
+
+    /**
+     * Clase interna para devolver el estado del anillo.
+     */
+    public static class EstadoAnilloDTO {
+
+        private Long partidaId;
+        private int jugadores;
+        private int vivos;
+        private int eliminaciones;
+        private boolean integro;
+
+        public EstadoAnilloDTO(Long partidaId, int jugadores, int vivos, int eliminaciones, boolean integro) {
+            this.partidaId = partidaId;
+            this.jugadores = jugadores;
+            this.vivos = vivos;
+            this.eliminaciones = eliminaciones;
+            this.integro = integro;
+        }
+
+        public Long getPartidaId() {
+            return partidaId;
+        }
+
+        public int getJugadores() {
+            return jugadores;
+        }
+
+        public int getVivos() {
+            return vivos;
+        }
+
+        public int getEliminaciones() {
+            return eliminaciones;
+        }
+
+        public boolean isIntegro() {
+            return integro;
+        }
+    }
+}
@@ -1,11 +1,20 @@
 package org.example.service;
 
+import io.micrometer.core.annotation.Timed;
 import org.example.Persona;
+import org.example.dto.Cursor;
+import org.example.dto.PaginaDTO;
+import org.example.evento.PersonaEvento;
 import org.example.repository.PersonaRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,12 +23,19 @@ import java.util.Optional;
  * Se encarga de validaciones, operaciones complejas y coordinar el acceso a datos.
  */
 @Service
+@Timed(value = "killerkiss.servicio", histogram = true)
 @Transactional
 public class PersonaService {
 
     @Autowired
     private PersonaRepository personaRepository;
 
+    @Autowired
+    private IndiceRanking indiceRanking;
+
+    @Autowired
+    private ApplicationEventPublisher eventos;
+
     /**
      * Obtiene todas las personas registradas.
      */
@@ -27,6 +43,37 @@ public class PersonaService {
         return personaRepository.findAll();
     }
 
+    /**
+     * Obtiene una página de personas ordenada por "id" (ascendente) o por "victories"
+     * (descendente, desempate por ID). El coste no depende del número de páginas anteriores.
+     */
+    public PaginaDTO<Persona> listarPagina(String orden, String cursor, Integer limite) {
+        String ordenEfectivo = (orden == null || orden.isBlank()) ? "id" : orden;
+        Cursor anterior = (cursor == null || cursor.isBlank()) ? null : Cursor.decodificar(cursor, ordenEfectivo);
+        int tamano = Cursor.normalizarLimite(limite);
+        PageRequest pagina = PageRequest.ofSize(tamano + 1);
+
+        List<Persona> personas;
+        if (ordenEfectivo.equals("id")) {
+            long despuesDe = anterior != null ? anterior.getId() : 0L;
+            personas = personaRepository.findPaginaPorId(despuesDe, pagina);
+        } else if (ordenEfectivo.equals("victories")) {
+            int victorias = anterior != null ? Integer.parseInt(anterior.getValor()) : Integer.MAX_VALUE;
+            long id = anterior != null ? anterior.getId() : 0L;
+            personas = personaRepository.findPaginaPorVictorias(victorias, id, pagina);
+        } else {
+            throw new IllegalArgumentException("Orden no soportado: " + ordenEfectivo);
+        }
+
+        if (personas.size() <= tamano) {
+            return new PaginaDTO<>(personas, null);
+        }
+        personas = personas.subList(0, tamano);
+        Persona ultima = personas.get(tamano - 1);
+        String valor = ordenEfectivo.equals("victories") ? String.valueOf(ultima.getVictories()) : "";
+        return new PaginaDTO<>(personas, new Cursor(ordenEfectivo, valor, ultima.getId()).codificar());
+    }
+
     /**
      * Busca una persona por su ID.
      */
@@ -66,7 +113,9 @@ public class PersonaService {
         }
 
         // Guardar en base de datos
-        return personaRepository.save(persona);
+        Persona personaGuardada = personaRepository.save(persona);
+        eventos.publishEvent(PersonaEvento.creada(personaGuardada));
+        return personaGuardada;
     }
 
     /**
@@ -89,36 +138,128 @@ public class PersonaService {
         personaExistente.setMail(personaActualizada.getMail());
         // No actualizamos victorias aquí, solo cuando gana una partida
 
-        return personaRepository.save(personaExistente);
+        Persona personaGuardada = personaRepository.save(personaExistente);
+        eventos.publishEvent(PersonaEvento.actualizada(personaGuardada));
+        return personaGuardada;
     }
 
     /**
      * Elimina una persona por su ID.
-     * La base de datos automáticamente limpia las referencias gracias a CASCADE.
+     * No se puede eliminar a quien juega o ha ganado alguna partida: quitarla del anillo
+     * dejaría un hueco en posicion y la partida sin su cazador o su víctima. La clave ajena
+     * de partida_participantes también lo impide si se cuela entre la comprobación y el borrado.
      */
     public void eliminar(Long id) {
         if (!personaRepository.existsById(id)) {
             throw new RuntimeException("Persona no encontrada con ID: " + id);
         }
-        
-        // Simplemente eliminar - la base de datos se encarga del resto
-        personaRepository.deleteById(id);
+        if (personaRepository.participaEnPartidas(id)) {
+            throw new IllegalArgumentException("No se puede eliminar una persona que participa en partidas");
+        }
+
+        try {
+            personaRepository.deleteById(id);
+            personaRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalArgumentException("No se puede eliminar una persona que participa en partidas");
+        }
+        eventos.publishEvent(PersonaEvento.eliminada(id));
     }
 
     /**
      * Obtiene el ranking de personas ordenadas por victorias (de mayor a menor).
+     * Se sirve desde el índice en memoria; limite es opcional (top-K).
+     * Solo devuelve nombre y victorias: el ranking es público y no debe exponer emails.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<JugadorRankingDTO> obtenerRanking(Integer limite) {
+        List<Persona> top = indiceRanking.top(limite);
+        List<JugadorRankingDTO> ranking = new ArrayList<>(top.size());
+        for (Persona persona : top) {
+            ranking.add(new JugadorRankingDTO(persona.getId(), persona.getNom(), persona.getVictories()));
+        }
+        return ranking;
+    }
+
+    /**
+     * Obtiene la posición de una persona en el ranking (empezando en 1).
      */
-    public List<Persona> obtenerRanking() {
-        return personaRepository.findAllOrderByVictoriesDesc();
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public PosicionRankingDTO obtenerPosicion(Long personaId) {
+        int posicion = indiceRanking.posicion(personaId);
+        if (posicion < 0) {
+            throw new RuntimeException("Persona no encontrada con ID: " + personaId);
+        }
+        return new PosicionRankingDTO(personaId, posicion, indiceRanking.total());
     }
 
     /**
      * Suma una victoria a una persona.
      */
     public void sumarVictoria(Long personaId) {
+        // UPDATE victories = victories + 1: no se pierden victorias con finalizaciones simultáneas
+        if (personaRepository.incrementarVictorias(personaId) == 0) {
+            throw new RuntimeException("Persona no encontrada");
+        }
+        // El UPDATE vacía el contexto de persistencia: se relee la fila con las victorias sumadas
         Persona persona = personaRepository.findById(personaId)
                 .orElseThrow(() -> new RuntimeException("Persona no encontrada"));
-        persona.sumarVictoria();
-        personaRepository.save(persona);
+        eventos.publishEvent(PersonaEvento.victoria(persona));
+    }
+
+    /**
+     * Clase interna para devolver la posición de una persona en el ranking.
+     */
+    public static class PosicionRankingDTO {
+
+        private Long personaId;
+        private int posicion;
+        private int totalJugadores;
+
+        public PosicionRankingDTO(Long personaId, int posicion, int totalJugadores) {
+            this.personaId = personaId;
+            this.posicion = posicion;
+            this.totalJugadores = totalJugadores;
+        }
+
+        public Long getPersonaId() {
+            return personaId;
+        }
+
+        public int getPosicion() {
+            return posicion;
+        }
+
+        public int getTotalJugadores() {
+            return totalJugadores;
+        }
+    }
+
+    /**
+     * Clase interna para devolver una entrada del ranking.
+     */
+    public static class JugadorRankingDTO {
+
+        private Long id;
+        private String nom;
+        private int victories;
+
+        public JugadorRankingDTO(Long id, String nom, int victories) {
+            this.id = id;
+            this.nom = nom;
+            this.victories = victories;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getNom() {
+            return nom;
+        }
+
+        public int getVictories() {
+            return victories;
+        }
     }
 }
@@ -0,0 +1,250 @@
+package org.example.service;
+
+import io.micrometer.core.annotation.Timed;
+import org.example.Persona;
+import org.example.entity.Cambio;
+import org.example.evento.PartidaEvento;
+import org.example.evento.PersonaEvento;
+import org.example.repository.CambioRepository;
+import org.example.repository.KillerKissRepository;
+import org.example.repository.KillerKissRepository.ResumenPartida;
+import org.example.repository.PersonaRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Registro de cambios de personas y partidas para la sincronización incremental (/api/changes).
+ *
+ * Cada evento de dominio se guarda ANTES del commit, en la misma transacción que el cambio,
+ * con el siguiente valor de cambios_secuencia. El UPDATE de ese contador bloquea su fila hasta
+ * el commit, así que las secuencias se hacen visibles en orden: un cliente que ya ha leído
+ * hasta N nunca verá aparecer después un cambio con secuencia menor que N.
+ */
+@Service
+@Timed(value = "killerkiss.servicio", histogram = true)
+public class RegistroCambios {
+
+    public static final int LIMITE_POR_DEFECTO = 500;
+    public static final int LIMITE_MAXIMO = 2000;
+
+    @Autowired
+    private CambioRepository cambioRepository;
+
+    @Autowired
+    private PersonaRepository personaRepository;
+
+    @Autowired
+    private KillerKissRepository partidaRepository;
+
+    @Value("${cambios.retencion-dias:7}")
+    private int retencionDias;
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void alCambiarPartida(PartidaEvento evento) {
+        Cambio.Operacion operacion = switch (evento.getTipo()) {
+            case CREADA -> Cambio.Operacion.INSERT;
+            case FINALIZADA -> Cambio.Operacion.UPDATE;
+            case ELIMINADA -> Cambio.Operacion.DELETE;
+        };
+        registrar(Cambio.Recurso.PARTIDA, evento.getPartidaId(), operacion);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void alCambiarPersona(PersonaEvento evento) {
+        Cambio.Operacion operacion = switch (evento.getTipo()) {
+            case CREADA -> Cambio.Operacion.INSERT;
+            case ACTUALIZADA, VICTORIA -> Cambio.Operacion.UPDATE;
+            case ELIMINADA -> Cambio.Operacion.DELETE;
+        };
+        registrar(Cambio.Recurso.PERSONA, evento.getPersonaId(), operacion);
+    }
+
+    private void registrar(Cambio.Recurso recurso, Long entidadId, Cambio.Operacion operacion) {
+        cambioRepository.avanzarSecuencia();
+        long secuencia = cambioRepository.secuenciaActual();
+        cambioRepository.save(new Cambio(secuencia, recurso, entidadId, operacion));
+    }
+
+    /**
+     * Último número de secuencia confirmado. Punto de partida de un cliente que acaba de
+     * descargar todos los datos (hay que leerlo ANTES que los datos).
+     */
+    @Transactional(readOnly = true)
+    public long secuenciaActual() {
+        return cambioRepository.secuenciaActual();
+    }
+
+    /**
+     * Cambios posteriores a la secuencia "desde", agrupados por recurso, con el estado actual
+     * de las filas insertadas o modificadas.
+     *
+     * REPEATABLE_READ hace que cambios y filas se lean de la misma foto de la base de datos.
+     *
+     * @throws IllegalStateException si "desde" ya no está en el registro (el cliente debe recargar todo)
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public CambiosDTO obtenerDesde(long desde, Integer limite) {
+        int tamano = limite == null ? LIMITE_POR_DEFECTO : limite;
+        if (desde < 0 || tamano < 1 || tamano > LIMITE_MAXIMO) {
+            throw new IllegalArgumentException(
+                    "Parámetros no válidos: since >= 0 y limite entre 1 y " + LIMITE_MAXIMO);
+        }
+
+        long actual = cambioRepository.secuenciaActual();
+        Long minima = cambioRepository.secuenciaMinima();
+        long primeraConservada = minima != null ? minima : actual + 1;
+        if (desde > actual || desde < primeraConservada - 1) {
+            throw new IllegalStateException("La versión " + desde + " ya no está disponible; recarga todos los datos");
+        }
+
+        // Se pide uno más para saber si quedan cambios sin devolver
+        List<Cambio> cambios = cambioRepository.findPosteriores(desde, PageRequest.of(0, tamano + 1));
+        boolean hayMas = cambios.size() > tamano;
+        if (hayMas) {
+            cambios = cambios.subList(0, tamano);
+        }
+        long hasta = cambios.isEmpty() ? desde : cambios.get(cambios.size() - 1).getSecuencia();
+
+        // Última operación de cada entidad; una inserción seguida de cambios sigue siendo inserción
+        Map<Long, Cambio.Operacion> personas = new LinkedHashMap<>();
+        Map<Long, Cambio.Operacion> partidas = new LinkedHashMap<>();
+        for (Cambio cambio : cambios) {
+            Map<Long, Cambio.Operacion> destino =
+                    cambio.getRecurso() == Cambio.Recurso.PERSONA ? personas : partidas;
+            destino.merge(cambio.getEntidadId(), cambio.getOperacion(), RegistroCambios::combinar);
+        }
+
+        CambiosRecursoDTO<Persona> cambiosPersonas = agrupar(personas);
+        if (!cambiosPersonas.idsConFila().isEmpty()) {
+            cambiosPersonas.filas = personaRepository.findAllById(cambiosPersonas.idsConFila());
+        }
+        CambiosRecursoDTO<ResumenPartida> cambiosPartidas = agrupar(partidas);
+        if (!cambiosPartidas.idsConFila().isEmpty()) {
+            cambiosPartidas.filas = partidaRepository.findResumenesByIdIn(cambiosPartidas.idsConFila());
+        }
+
+        return new CambiosDTO(desde, hasta, hayMas, cambiosPersonas, cambiosPartidas);
+    }
+
+    private static Cambio.Operacion combinar(Cambio.Operacion anterior, Cambio.Operacion nueva) {
+        if (anterior == Cambio.Operacion.INSERT && nueva == Cambio.Operacion.UPDATE) {
+            return Cambio.Operacion.INSERT;
+        }
+        return nueva;
+    }
+
+    private static <T> CambiosRecursoDTO<T> agrupar(Map<Long, Cambio.Operacion> operaciones) {
+        CambiosRecursoDTO<T> dto = new CambiosRecursoDTO<>();
+        operaciones.forEach((id, operacion) -> {
+            switch (operacion) {
+                case INSERT -> dto.insertados.add(id);
+                case UPDATE -> dto.actualizados.add(id);
+                case DELETE -> dto.eliminados.add(id);
+            }
+        });
+        return dto;
+    }
+
+    /**
+     * Borra del registro los cambios más antiguos que la retención configurada.
+     * Un cliente que pida una versión borrada recibe 410 y vuelve a cargar el dashboard.
+     */
+    @Scheduled(cron = "0 30 4 * * *")
+    @Transactional
+    public void purgar() {
+        int borrados = cambioRepository.borrarAnteriores(LocalDateTime.now().minusDays(retencionDias));
+        if (borrados > 0) {
+            System.out.println("✓ Registro de cambios: " + borrados + " entradas antiguas borradas");
+        }
+    }
+
+    /**
+     * Clase interna con la respuesta de /api/changes.
+     */
+    public static class CambiosDTO {
+
+        private final long desde;
+        private final long hasta;
+        private final boolean hayMas;
+        private final CambiosRecursoDTO<Persona> personas;
+        private final CambiosRecursoDTO<ResumenPartida> partidas;
+
+        public CambiosDTO(long desde, long hasta, boolean hayMas,
+                          CambiosRecursoDTO<Persona> personas,
+                          CambiosRecursoDTO<ResumenPartida> partidas) {
+            this.desde = desde;
+            this.hasta = hasta;
+            this.hayMas = hayMas;
+            this.personas = personas;
+            this.partidas = partidas;
+        }
+
+        public long getDesde() {
+            return desde;
+        }
+
+        /** Secuencia del último cambio incluido: el "since" de la siguiente petición. */
+        public long getHasta() {
+            return hasta;
+        }
+
+        public boolean isHayMas() {
+            return hayMas;
+        }
+
+        public CambiosRecursoDTO<Persona> getPersonas() {
+            return personas;
+        }
+
+        public CambiosRecursoDTO<ResumenPartida> getPartidas() {
+            return partidas;
+        }
+    }
+
+    /**
+     * Ids insertados, modificados y eliminados de un recurso, y las filas actuales de los
+     * insertados y modificados (puede faltar alguna si se borró después de "hasta").
+     */
+    public static class CambiosRecursoDTO<T> {
+
+        private final List<Long> insertados = new ArrayList<>();
+        private final List<Long> actualizados = new ArrayList<>();
+        private final List<Long> eliminados = new ArrayList<>();
+        private List<T> filas = List.of();
+
+        private List<Long> idsConFila() {
+            List<Long> ids = new ArrayList<>(insertados);
+            ids.addAll(actualizados);
+            return ids;
+        }
+
+        public List<Long> getInsertados() {
+            return insertados;
+        }
+
+        public List<Long> getActualizados() {
+            return actualizados;
+        }
+
+        public List<Long> getEliminados() {
+            return eliminados;
+        }
+
+        public List<T> getFilas() {
+            return filas;
+        }
+    }
+}
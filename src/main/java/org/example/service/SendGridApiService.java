@@ -1,80 +1,306 @@
 package org.example.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.io.OutputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.nio.charset.StandardCharsets;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Servicio para enviar emails usando Resend API (HTTP)
  * Gratis: hasta 3000 emails/mes, 100/día
  * https://resend.com
+ *
+ * Todos los envíos comparten un único HttpClient (reutiliza conexiones) y son asíncronos:
+ * cada destinatario recibe su propio CompletableFuture. Los lotes se agrupan en peticiones
+ * a /emails/batch y el número de peticiones simultáneas está limitado por resend.max-concurrencia.
  */
 @Service
 public class SendGridApiService {
 
+    /** Máximo de emails por petición que acepta /emails/batch de Resend. */
+    private static final int MAXIMO_POR_LOTE = 100;
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    /** Opcional: sin registro (p. ej. en los benchmarks) no se mide nada. */
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
     @Value("${resend.api.key:}")
     private String apiKey;
 
+    @Value("${resend.api.url:https://api.resend.com}")
+    private String apiUrl;
+
+    @Value("${resend.max-concurrencia:4}")
+    private int maxConcurrencia;
+
+    @Value("${resend.tamano-lote:50}")
+    private int tamanoLote;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    private final Queue<Runnable> pendientes = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger enVuelo = new AtomicInteger();
+
     /**
-     * Envía email usando Resend API HTTP
+     * Envía email usando Resend API HTTP (bloquea hasta tener respuesta).
      */
     public boolean sendEmail(String from, String to, String subject, String htmlContent) {
-        if (apiKey == null || apiKey.isEmpty()) {
+        return enviar(new Email(from, to, subject, htmlContent)).join();
+    }
+
+    /**
+     * Envía un email sin bloquear. El future se completa con true si Resend lo acepta.
+     */
+    public CompletableFuture<Boolean> enviar(Email email) {
+        if (!isConfigured()) {
             System.err.println("✗ Resend API Key no configurada");
-            return false;
+            return CompletableFuture.completedFuture(false);
         }
+        CompletableFuture<Resultado> resultado = new CompletableFuture<>();
+        byte[] cuerpo = construirCuerpo(email);
+        programar(() -> post("/emails", cuerpo, List.of(resultado)));
+        return resultado.thenApply(Resultado::isOk);
+    }
 
-        try {
-            String safeHtml = htmlContent
-                .replace("\\", "\\\\")
-                .replace("\"", "\\\"")
-                .replace("\n", "\\n")
-                .replace("\r", "");
-            String safeSubject = subject.replace("\\", "\\\\").replace("\"", "\\\"");
-
-            String body = "{\"from\":\"" + from + "\","
-                + "\"to\":[\"" + to + "\"],"
-                + "\"subject\":\"" + safeSubject + "\","
-                + "\"html\":\"" + safeHtml + "\"}";
-
-            URL url = new URL("https://api.resend.com/emails");
-            HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-            conn.setRequestMethod("POST");
-            conn.setRequestProperty("Authorization", "Bearer " + apiKey);
-            conn.setRequestProperty("Content-Type", "application/json");
-            conn.setDoOutput(true);
-            conn.setConnectTimeout(10000);
-            conn.setReadTimeout(15000);
-
-            try (OutputStream os = conn.getOutputStream()) {
-                os.write(body.getBytes(StandardCharsets.UTF_8));
-            }
+    /**
+     * Envía varios emails sin bloquear, agrupados en peticiones a /emails/batch.
+     * Devuelve un future por email, en el mismo orden que la lista recibida; si falla,
+     * el Resultado trae el motivo (estado HTTP y respuesta de Resend, o el error de red).
+     */
+    public List<CompletableFuture<Resultado>> enviarLote(List<Email> emails) {
+        List<CompletableFuture<Resultado>> resultados = new ArrayList<>(emails.size());
+        for (int i = 0; i < emails.size(); i++) {
+            resultados.add(new CompletableFuture<>());
+        }
+        if (!isConfigured()) {
+            System.err.println("✗ Resend API Key no configurada");
+            resultados.forEach(f -> f.complete(Resultado.fallo("Resend API Key no configurada")));
+            return resultados;
+        }
 
-            int status = conn.getResponseCode();
-            if (status >= 200 && status < 300) {
-                System.out.println("✓ Email enviado via Resend API [HTTP " + status + "]");
-                return true;
-            } else {
-                String errorBody = new String(
-                    (status >= 400 ? conn.getErrorStream() : conn.getInputStream()).readAllBytes(),
-                    StandardCharsets.UTF_8
-                );
-                System.err.println("✗ Resend API error: HTTP " + status + " → " + errorBody);
-                return false;
-            }
+        int porLote = Math.max(1, Math.min(tamanoLote, MAXIMO_POR_LOTE));
+        for (int desde = 0; desde < emails.size(); desde += porLote) {
+            int hasta = Math.min(desde + porLote, emails.size());
+            List<Email> lote = emails.subList(desde, hasta);
+            List<CompletableFuture<Resultado>> futuros = resultados.subList(desde, hasta);
+            byte[] cuerpo = construirCuerpo(lote);
+            programar(() -> post("/emails/batch", cuerpo, futuros));
+        }
+        return resultados;
+    }
+
+    /**
+     * Cuerpo JSON de un envío individual.
+     */
+    public byte[] construirCuerpo(Email email) {
+        try {
+            return JSON.writeValueAsBytes(aMapa(email));
+        } catch (Exception e) {
+            throw new IllegalArgumentException("No se pudo serializar el email", e);
+        }
+    }
 
+    /**
+     * Cuerpo JSON de un envío por lotes (array de emails).
+     */
+    public byte[] construirCuerpo(List<Email> emails) {
+        List<Map<String, Object>> cuerpo = new ArrayList<>(emails.size());
+        for (Email email : emails) {
+            cuerpo.add(aMapa(email));
+        }
+        try {
+            return JSON.writeValueAsBytes(cuerpo);
         } catch (Exception e) {
-            System.err.println("✗ Error Resend API: " + e.getMessage());
-            e.printStackTrace();
-            return false;
+            throw new IllegalArgumentException("No se pudo serializar el lote de emails", e);
         }
     }
 
     public boolean isConfigured() {
         return apiKey != null && !apiKey.isEmpty();
     }
+
+    /**
+     * Peticiones a Resend en curso.
+     */
+    public int getEnVuelo() {
+        return enVuelo.get();
+    }
+
+    /**
+     * Peticiones esperando hueco dentro de resend.max-concurrencia.
+     */
+    public int getEnCola() {
+        return pendientes.size();
+    }
+
+    private Map<String, Object> aMapa(Email email) {
+        Map<String, Object> mapa = new LinkedHashMap<>();
+        mapa.put("from", email.getFrom());
+        mapa.put("to", List.of(email.getTo()));
+        mapa.put("subject", email.getSubject());
+        mapa.put("html", email.getHtml());
+        return mapa;
+    }
+
+    /**
+     * Lanza la petición y completa los futures de sus destinatarios al recibir respuesta.
+     */
+    private void post(String ruta, byte[] cuerpo, List<CompletableFuture<Resultado>> futuros) {
+        Timer.Sample muestra = Timer.start();
+        CompletableFuture<HttpResponse<String>> envio;
+        try {
+            HttpRequest peticion = HttpRequest.newBuilder(URI.create(apiUrl + ruta))
+                    .timeout(Duration.ofSeconds(15))
+                    .header("Authorization", "Bearer " + apiKey)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(cuerpo))
+                    .build();
+            envio = httpClient.sendAsync(peticion, HttpResponse.BodyHandlers.ofString());
+        } catch (RuntimeException e) {
+            envio = CompletableFuture.failedFuture(e);
+        }
+
+        envio.whenComplete((respuesta, error) -> {
+            try {
+                boolean ok = error == null && respuesta.statusCode() >= 200 && respuesta.statusCode() < 300;
+                Resultado resultado;
+                if (error != null) {
+                    System.err.println("✗ Error Resend API: " + error.getMessage());
+                    resultado = Resultado.fallo("Error de red: " + error.getMessage());
+                } else if (!ok) {
+                    System.err.println("✗ Resend API error: HTTP " + respuesta.statusCode() + " → " + respuesta.body());
+                    resultado = Resultado.fallo("HTTP " + respuesta.statusCode() + ": " + respuesta.body());
+                } else {
+                    resultado = Resultado.OK;
+                }
+                medir(muestra, ruta, error != null ? "error" : ok ? "ok" : "rechazado", futuros.size());
+                futuros.forEach(f -> f.complete(resultado));
+            } finally {
+                enVuelo.decrementAndGet();
+                drenar();
+            }
+        });
+    }
+
+    /**
+     * Latencia de la petición y emails por resultado (ok, rechazado por Resend o error de red).
+     */
+    private void medir(Timer.Sample muestra, String ruta, String resultado, int destinatarios) {
+        if (meterRegistry == null) {
+            return;
+        }
+        muestra.stop(Timer.builder("killerkiss.email.envio")
+                .description("Duración de las peticiones a Resend")
+                .tag("ruta", ruta)
+                .tag("resultado", resultado)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+        meterRegistry.counter("killerkiss.email.destinatarios", "resultado", resultado).increment(destinatarios);
+    }
+
+    /**
+     * Encola una petición; se lanza en cuanto hay hueco dentro de resend.max-concurrencia.
+     */
+    private void programar(Runnable peticion) {
+        pendientes.add(peticion);
+        drenar();
+    }
+
+    private void drenar() {
+        while (!pendientes.isEmpty()) {
+            int actuales = enVuelo.get();
+            if (actuales >= maxConcurrencia) {
+                return;
+            }
+            if (!enVuelo.compareAndSet(actuales, actuales + 1)) {
+                continue;
+            }
+            Runnable peticion = pendientes.poll();
+            if (peticion == null) {
+                enVuelo.decrementAndGet();
+                continue;
+            }
+            peticion.run();
+        }
+    }
+
+    /**
+     * Resultado del envío de un email: aceptado por Resend o el motivo del fallo.
+     */
+    public static class Resultado {
+
+        private static final Resultado OK = new Resultado(null);
+
+        private final String error;
+
+        private Resultado(String error) {
+            this.error = error;
+        }
+
+        private static Resultado fallo(String error) {
+            return new Resultado(error);
+        }
+
+        public boolean isOk() {
+            return error == null;
+        }
+
+        public String getError() {
+            return error;
+        }
+    }
+
+    /**
+     * Email a enviar a un único destinatario.
+     */
+    public static class Email {
+
+        private final String from;
+        private final String to;
+        private final String subject;
+        private final String html;
+
+        public Email(String from, String to, String subject, String html) {
+            this.from = from;
+            this.to = to;
+            this.subject = subject;
+            this.html = html;
+        }
+
+        public String getFrom() {
+            return from;
+        }
+
+        public String getTo() {
+            return to;
+        }
+
+        public String getSubject() {
+            return subject;
+        }
+
+        public String getHtml() {
+            return html;
+        }
+    }
 }
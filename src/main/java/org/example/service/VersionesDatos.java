@@ -0,0 +1,91 @@
+package org.example.service;
+
+import org.example.evento.PartidaEvento;
+import org.example.evento.PersonaEvento;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Contadores de versión de los datos que sirven los endpoints de lectura.
+ *
+ * Cada escritura confirmada (eventos de PersonaEvento y PartidaEvento) incrementa la versión
+ * de los recursos afectados. Los controllers construyen con ella un ETag fuerte y responden
+ * 304 a un If-None-Match que coincide, sin consultar la base de datos ni serializar nada.
+ * El ETag incluye un identificador de arranque, así nunca coincide con el de otra ejecución
+ * u otra instancia.
+ */
+@Component
+public class VersionesDatos {
+
+    public enum Recurso {
+        PARTIDAS,
+        PERSONAS
+    }
+
+    private final String arranque = Long.toString(System.currentTimeMillis(), 36)
+            + Integer.toString(ThreadLocalRandom.current().nextInt(Integer.MAX_VALUE), 36);
+    private final Version partidas = new Version();
+    private final Version personas = new Version();
+
+    /**
+     * ETag fuerte de un recurso. Debe obtenerse ANTES de leer los datos: si hay una escritura
+     * en medio, el cliente se queda con un ETag antiguo y simplemente volverá a descargarlos.
+     */
+    public String etag(Recurso recurso) {
+        return "\"" + arranque + "-" + version(recurso).numero.get() + "\"";
+    }
+
+    /**
+     * ETag fuerte de datos que dependen de partidas y personas a la vez.
+     */
+    public String etagCombinado() {
+        return "\"" + arranque + "-" + partidas.numero.get() + "." + personas.numero.get() + "\"";
+    }
+
+    /**
+     * Instante (ms) del último cambio del recurso, para Last-Modified.
+     */
+    public long ultimaModificacion(Recurso recurso) {
+        return version(recurso).modificado;
+    }
+
+    /**
+     * Instante (ms) del último cambio de partidas o personas.
+     */
+    public long ultimaModificacionCombinada() {
+        return Math.max(partidas.modificado, personas.modificado);
+    }
+
+    @TransactionalEventListener
+    public void alCambiarPartida(PartidaEvento evento) {
+        partidas.incrementar();
+    }
+
+    /**
+     * Las partidas incluyen a sus participantes (nombre, email, victorias): un cambio en una
+     * persona también cambia la versión de las partidas.
+     */
+    @TransactionalEventListener
+    public void alCambiarPersona(PersonaEvento evento) {
+        personas.incrementar();
+        partidas.incrementar();
+    }
+
+    private Version version(Recurso recurso) {
+        return recurso == Recurso.PARTIDAS ? partidas : personas;
+    }
+
+    private static final class Version {
+
+        private final AtomicLong numero = new AtomicLong();
+        private volatile long modificado = System.currentTimeMillis();
+
+        private void incrementar() {
+            modificado = System.currentTimeMillis();
+            numero.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+-- Esquema tal como lo dejaba ddl-auto=update antes de pasar a migraciones.
+--
+-- Todo es IF NOT EXISTS: en una base de datos nueva crea el esquema completo y en una que ya
+-- tenía las tablas (baseline-version=0, así que esta migración también se ejecuta) solo añade
+-- lo que falte. Válido en PostgreSQL y en H2 en modo PostgreSQL (perfil loadtest).
+
+-- Secuencias de IDs (optimizador pooled: el incremento es el allocationSize de la entidad).
+-- SecuenciasIds las adelanta al arrancar si hay filas con IDs mayores.
+CREATE SEQUENCE IF NOT EXISTS personas_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS partidas_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS email_outbox_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS email_counter_seq START WITH 1 INCREMENT BY 1;
+
+CREATE TABLE IF NOT EXISTS personas (
+    id BIGINT NOT NULL,
+    nom VARCHAR(255) NOT NULL,
+    mail VARCHAR(255) NOT NULL UNIQUE,
+    victories INTEGER NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS partidas (
+    id BIGINT NOT NULL,
+    nom VARCHAR(255) NOT NULL,
+    estat BOOLEAN NOT NULL,
+    ganador_id BIGINT REFERENCES personas (id),
+    fecha_creacion TIMESTAMP(6),
+    fecha_finalizacion TIMESTAMP(6),
+    PRIMARY KEY (id)
+);
+
+-- Participantes en el orden del anillo
+CREATE TABLE IF NOT EXISTS partida_participantes (
+    partida_id BIGINT NOT NULL REFERENCES partidas (id),
+    persona_id BIGINT NOT NULL REFERENCES personas (id),
+    posicion INTEGER NOT NULL,
+    PRIMARY KEY (partida_id, posicion)
+);
+-- Tablas creadas antes de guardar el orden: MigracionesDatos rellena las posiciones
+ALTER TABLE partida_participantes ADD COLUMN IF NOT EXISTS posicion INTEGER;
+
+CREATE TABLE IF NOT EXISTS partida_eliminaciones (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    partida_id BIGINT NOT NULL,
+    paso INTEGER NOT NULL,
+    cazador_id BIGINT NOT NULL,
+    victima_id BIGINT NOT NULL,
+    nuevo_objetivo_id BIGINT NOT NULL,
+    fecha TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_eliminacion_paso UNIQUE (partida_id, paso),
+    CONSTRAINT uk_eliminacion_victima UNIQUE (partida_id, victima_id)
+);
+
+CREATE TABLE IF NOT EXISTS email_counter (
+    id BIGINT NOT NULL,
+    fecha DATE NOT NULL UNIQUE,
+    emails_enviados INTEGER NOT NULL,
+    emails_reservados INTEGER,
+    PRIMARY KEY (id)
+);
+ALTER TABLE email_counter ADD COLUMN IF NOT EXISTS emails_reservados INTEGER;
+
+CREATE TABLE IF NOT EXISTS email_outbox (
+    id BIGINT NOT NULL,
+    partida_id BIGINT NOT NULL,
+    destinatario VARCHAR(255) NOT NULL,
+    nombre VARCHAR(255) NOT NULL,
+    asunto VARCHAR(255) NOT NULL,
+    html TEXT NOT NULL,
+    estado VARCHAR(16) NOT NULL CHECK (estado IN ('PENDIENTE', 'ENVIANDO', 'ENVIADO', 'FALLIDO')),
+    intentos INTEGER NOT NULL,
+    proximo_intento TIMESTAMP(6) NOT NULL,
+    ultimo_error VARCHAR(500),
+    fecha_creacion TIMESTAMP(6) NOT NULL,
+    fecha_envio TIMESTAMP(6),
+    PRIMARY KEY (id)
+);
+CREATE INDEX IF NOT EXISTS idx_email_outbox_estado ON email_outbox (estado, proximo_intento);
+CREATE INDEX IF NOT EXISTS idx_email_outbox_partida ON email_outbox (partida_id);
+
+-- Registro de cambios (/api/changes) y su contador de fila única (RegistroCambios)
+CREATE TABLE IF NOT EXISTS cambios (
+    secuencia BIGINT NOT NULL,
+    recurso VARCHAR(16) NOT NULL CHECK (recurso IN ('PERSONA', 'PARTIDA')),
+    entidad_id BIGINT NOT NULL,
+    operacion VARCHAR(16) NOT NULL CHECK (operacion IN ('INSERT', 'UPDATE', 'DELETE')),
+    fecha TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (secuencia)
+);
+CREATE INDEX IF NOT EXISTS idx_cambios_fecha ON cambios (fecha);
+
+CREATE TABLE IF NOT EXISTS cambios_secuencia (
+    id INTEGER PRIMARY KEY,
+    valor BIGINT NOT NULL
+);
+INSERT INTO cambios_secuencia (id, valor)
+SELECT 1, 0 WHERE NOT EXISTS (SELECT 1 FROM cambios_secuencia WHERE id = 1);
+
+-- Administradores (AuthController, contraseñas con BCrypt)
+CREATE TABLE IF NOT EXISTS usuarios (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    username VARCHAR(255) NOT NULL UNIQUE,
+    password VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id)
+);
@@ -0,0 +1,10 @@
+-- Índices para las consultas que recorrían la tabla entera.
+
+-- Partidas por estado (findResumenesByEstat, countByEstat, paginación por fecha de creación)
+CREATE INDEX IF NOT EXISTS idx_partidas_estat_fecha ON partidas (estat, fecha_creacion);
+
+-- Partidas ganadas por una persona (findByGanador) y comprobación de la clave ajena al borrar personas
+CREATE INDEX IF NOT EXISTS idx_partidas_ganador ON partidas (ganador_id);
+
+-- Ranking: ORDER BY victories DESC, id (findPaginaPorVictorias, findAllOrderByVictoriesDesc)
+CREATE INDEX IF NOT EXISTS idx_personas_ranking ON personas (victories DESC, id);
@@ -0,0 +1,10 @@
+-- Versión H2 (perfil loadtest) de postgresql/V3__nombre_partida_activa_unico.sql.
+-- H2 no tiene índices parciales: la columna generada vale el nombre si la partida está activa
+-- y NULL si no, y el índice único admite varios NULL. El resultado es el mismo.
+-- Sin bloque de comprobación (H2 no tiene DO): con partidas activas repetidas falla la creación
+-- del índice, y el error de H2 incluye el nombre repetido.
+
+ALTER TABLE partidas ADD COLUMN IF NOT EXISTS nom_activa VARCHAR(255)
+    GENERATED ALWAYS AS (CASE WHEN estat THEN nom END);
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_partidas_nom_activa ON partidas (nom_activa);
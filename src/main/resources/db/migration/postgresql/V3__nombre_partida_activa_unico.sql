@@ -0,0 +1,23 @@
+-- Como mucho una partida activa con cada nombre. Sustituye a la comprobación previa de crear(),
+-- que dejaba pasar dos altas simultáneas con el mismo nombre.
+
+-- Duplicados que ya hayan entrado por esa carrera: no se tocan los datos. La migración falla
+-- con los nombres e IDs afectados; hay que renombrar o finalizar las repetidas y volver a arrancar
+-- (Flyway la repite, porque en PostgreSQL se deshace entera)
+DO $$
+DECLARE
+    repetidas TEXT;
+BEGIN
+    SELECT string_agg(format('"%s" (IDs %s)', nom, ids), '; ' ORDER BY nom) INTO repetidas
+    FROM (SELECT nom, string_agg(id::text, ', ' ORDER BY id) AS ids
+          FROM partidas
+          WHERE estat = true
+          GROUP BY nom
+          HAVING COUNT(*) > 1) d;
+    IF repetidas IS NOT NULL THEN
+        RAISE EXCEPTION 'Hay partidas activas con el mismo nombre: %. Renombra o finaliza las repetidas antes de migrar', repetidas;
+    END IF;
+END $$;
+
+-- Índice parcial: solo entran las partidas activas, las finalizadas pueden repetir nombre
+CREATE UNIQUE INDEX IF NOT EXISTS uk_partidas_nom_activa ON partidas (nom) WHERE estat = true;
@@ -0,0 +1,44 @@
+-- Una persona que juega o ha ganado una partida no se puede borrar (PersonaService.eliminar).
+-- En una base de datos nueva ya es así: V1 crea las claves ajenas sin ON DELETE. Las tablas
+-- anteriores a las migraciones pueden tenerlas con ON DELETE CASCADE o SET NULL, que al borrar
+-- a un jugador dejaban un hueco en posicion (un null en el anillo) o la partida sin ganador.
+-- Aquí se rehacen como en V1 y se crean las que falten. Solo PostgreSQL: en H2 el esquema
+-- siempre sale de V1.
+DO $$
+DECLARE
+    referencia RECORD;
+    restriccion RECORD;
+BEGIN
+    FOR referencia IN
+        SELECT * FROM (VALUES ('partida_participantes', 'persona_id', 'fk_participantes_persona'),
+                              ('partidas', 'ganador_id', 'fk_partidas_ganador')) r (tabla, columna, nombre)
+    LOOP
+        -- Claves ajenas de esa columna hacia personas con alguna acción al borrar
+        FOR restriccion IN
+            SELECT c.conname
+            FROM pg_constraint c
+            JOIN pg_attribute a ON a.attrelid = c.conrelid AND a.attnum = ANY (c.conkey)
+            WHERE c.contype = 'f'
+              AND c.conrelid = referencia.tabla::regclass
+              AND c.confrelid = 'personas'::regclass
+              AND a.attname = referencia.columna
+              AND c.confdeltype NOT IN ('a', 'r')
+        LOOP
+            EXECUTE format('ALTER TABLE %I DROP CONSTRAINT %I', referencia.tabla, restriccion.conname);
+        END LOOP;
+
+        IF NOT EXISTS (
+            SELECT 1
+            FROM pg_constraint c
+            JOIN pg_attribute a ON a.attrelid = c.conrelid AND a.attnum = ANY (c.conkey)
+            WHERE c.contype = 'f'
+              AND c.conrelid = referencia.tabla::regclass
+              AND c.confrelid = 'personas'::regclass
+              AND a.attname = referencia.columna
+        ) THEN
+            -- NOT VALID: no revisa las filas que ya hubiera, pero protege los borrados desde ahora
+            EXECUTE format('ALTER TABLE %I ADD CONSTRAINT %I FOREIGN KEY (%I) REFERENCES personas (id) NOT VALID',
+                           referencia.tabla, referencia.nombre, referencia.columna);
+        END IF;
+    END LOOP;
+END $$;
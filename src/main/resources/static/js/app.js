@@ -9,7 +9,9 @@ let emailjsConfig = null;
 let personas = [];
 let partidasActivas = [];
 let partidasFinalizadas = [];
+let cursorFinalizadas = null;
 let partidaSeleccionada = null;
+let secuenciaCambios = 0; // Última versión de los datos recibida (/api/changes)
 
 // Logout
 function logout() {
@@ -28,17 +30,8 @@ document.addEventListener('DOMContentLoaded', async () => {
         langSelector.value = getCurrentLanguage();
     }
     
-    // Cargar configuración de EmailJS desde el servidor
-    try {
-        const res = await fetch(`${API_URL}/config`);
-        emailjsConfig = await res.json();
-        emailjs.init(emailjsConfig.emailjsPublicKey);
-    } catch (e) {
-        console.error('No se pudo cargar la configuración de EmailJS:', e);
-    }
-    
-    // Cargar solo la primera pestaña (personas)
-    cargarPersonas();
+    // Cargar todos los datos iniciales (configuración incluida) en una sola petición
+    await cargarDashboard();
     TabActual = 'personas';
     
     // Event listeners de formularios
@@ -46,6 +39,107 @@ document.addEventListener('DOMContentLoaded', async () => {
     document.getElementById('form-partida').addEventListener('submit', crearPartida);
 });
 
+/**
+ * Carga configuración, personas, ranking, partidas y estadísticas con /api/dashboard
+ * y pinta todas las pestañas. Al cambiar de pestaña se refresca solo la que se abre.
+ */
+async function cargarDashboard() {
+    try {
+        const response = await fetch(`${API_URL}/dashboard`);
+        if (!response.ok) {
+            throw new Error(`HTTP error! status: ${response.status}`);
+        }
+        const dashboard = await response.json();
+        secuenciaCambios = dashboard.secuenciaCambios;
+        
+        emailjsConfig = dashboard.config;
+        emailjs.init(emailjsConfig.emailjsPublicKey);
+        
+        personas = dashboard.personas;
+        mostrarPersonasEnTabla();
+        actualizarSelectorParticipantes();
+        mostrarRanking(dashboard.ranking);
+        
+        partidasActivas = dashboard.partidasActivas;
+        mostrarPartidasActivas();
+        partidasFinalizadas = dashboard.partidasFinalizadas.items;
+        cursorFinalizadas = dashboard.partidasFinalizadas.siguienteCursor;
+        mostrarPartidasFinalizadas();
+        document.getElementById('btn-mas-finalizadas').style.display = dashboard.partidasFinalizadas.hayMas ? 'inline-block' : 'none';
+        
+        mostrarEstadisticas(dashboard.estadisticas);
+    } catch (error) {
+        console.error('Error al cargar el dashboard:', error);
+        mostrarMensaje('Error al cargar los datos', 'error');
+    }
+}
+
+/**
+ * Pide a /api/changes solo lo que ha cambiado desde la última versión recibida y lo aplica
+ * a las listas en memoria (personas, partidas activas y finalizadas). Si la versión ya no
+ * está en el registro del servidor (410), vuelve a cargar el dashboard completo.
+ */
+async function sincronizarCambios() {
+    try {
+        let hayMas = true;
+        while (hayMas) {
+            const response = await fetch(`${API_URL}/changes?since=${secuenciaCambios}`);
+            if (response.status === 410) {
+                await cargarDashboard();
+                return;
+            }
+            if (!response.ok) {
+                throw new Error(`HTTP error! status: ${response.status}`);
+            }
+            const cambios = await response.json();
+            aplicarCambiosPersonas(cambios.personas);
+            aplicarCambiosPartidas(cambios.partidas);
+            secuenciaCambios = cambios.hasta;
+            hayMas = cambios.hayMas;
+        }
+        
+        mostrarPersonasEnTabla();
+        actualizarSelectorParticipantes();
+        mostrarPartidasActivas();
+        mostrarPartidasFinalizadas();
+    } catch (error) {
+        console.error('Error al sincronizar cambios:', error);
+        mostrarMensaje('Error al actualizar los datos', 'error');
+    }
+}
+
+function aplicarCambiosPersonas(cambios) {
+    const eliminados = new Set(cambios.eliminados);
+    personas = personas.filter(p => !eliminados.has(p.id));
+    cambios.filas.forEach(fila => {
+        const indice = personas.findIndex(p => p.id === fila.id);
+        if (indice >= 0) {
+            personas[indice] = fila;
+        } else {
+            personas.push(fila);
+        }
+    });
+}
+
+function aplicarCambiosPartidas(cambios) {
+    // Una partida modificada puede pasar de activa a finalizada: se quita de las dos listas
+    // y se vuelve a poner en la que le toca
+    const quitar = new Set(cambios.eliminados.concat(cambios.filas.map(f => f.id)));
+    partidasActivas = partidasActivas.filter(p => !quitar.has(p.id));
+    partidasFinalizadas = partidasFinalizadas.filter(p => !quitar.has(p.id));
+    cambios.filas.forEach(fila => {
+        if (fila.estat) {
+            partidasActivas.push(fila);
+        } else {
+            partidasFinalizadas.push(fila);
+        }
+    });
+    // Mismo orden que el servidor: activas por id y finalizadas por fecha de creación, descendente
+    partidasActivas.sort((a, b) => b.id - a.id);
+    partidasFinalizadas.sort((a, b) =>
+        (b.fechaCreacion || '').localeCompare(a.fechaCreacion || '') || b.id - a.id);
+}
+
 // ========================================
 // NAVEGACIÓN ENTRE TABS
 // ========================================
@@ -78,10 +172,10 @@ function showTab(tabName, event) {
     if (tabName !== TabActual) {
         // Cargar datos según el tab seleccionado
         if (tabName === 'personas') {
-            cargarPersonas();
+            sincronizarCambios();
             TabActual = 'personas';
         } else if (tabName === 'partidas') {
-            cargarPartidas();
+            sincronizarCambios();
             TabActual = 'partidas';
         } else if (tabName === 'ranking') {
             cargarRanking();
@@ -97,34 +191,6 @@ function showTab(tabName, event) {
 // FUNCIONES PERSONAS
 // ========================================
 
-async function cargarPersonas() {
-    try {
-        const response = await fetch(`${API_URL}/personas`);
-        
-        if (!response.ok) {
-            throw new Error(`HTTP error! status: ${response.status}`);
-        }
-        
-        const data = await response.json();
-        
-        // Validar que sea un array
-        if (Array.isArray(data)) {
-            personas = data;
-        } else {
-            console.error('La respuesta no es un array:', data);
-            personas = [];
-        }
-        
-        mostrarPersonasEnTabla();
-        actualizarSelectorParticipantes();
-        
-    } catch (error) {
-        console.error('Error al cargar personas:', error);
-        mostrarMensaje('Error al cargar personas', 'error');
-        personas = [];
-    }
-}
-
 function mostrarPersonasEnTabla() {
     const tbody = document.querySelector('#tabla-personas tbody');
     
@@ -236,7 +302,7 @@ async function crearPersona(event) {
         if (response.ok) {
             mostrarMensaje('Persona creada correctamente', 'success');
             document.getElementById('form-persona').reset();
-            cargarPersonas(); // Forzar recarga para obtener datos actualizados
+            sincronizarCambios(); // Solo lo que ha cambiado desde la última versión
         } else {
             const error = await response.json();
             mostrarMensaje(`Error: ${error.error || 'No se pudo crear la persona'}`, 'error');
@@ -321,7 +387,7 @@ async function editarPersona(id) {
         if (response.ok) {
             mostrarMensaje('Persona actualizada correctamente', 'success');
             cerrarModalEditarPersona();
-            cargarPersonas(); // Forzar recarga para obtener datos actualizados
+            sincronizarCambios(); // Solo lo que ha cambiado desde la última versión
         } else {
             const error = await response.json();
             mostrarMensaje(`Error: ${error.error || 'No se pudo actualizar la persona'}`, 'error');
@@ -344,7 +410,7 @@ async function eliminarPersona(id) {
         
         if (response.ok) {
             mostrarMensaje('Persona eliminada correctamente', 'success');
-            cargarPersonas(); // Forzar recarga para obtener datos actualizados
+            sincronizarCambios(); // Solo lo que ha cambiado desde la última versión
         } else {
             // Intentar obtener el mensaje de error del servidor
             const errorData = await response.json();
@@ -361,20 +427,22 @@ async function eliminarPersona(id) {
 // FUNCIONES PARTIDAS
 // ========================================
 
-async function cargarPartidas() {
+async function cargarMasFinalizadas() {
     try {
-        // Cargar partidas activas
-        const responseActivas = await fetch(`${API_URL}/partidas/activas`);
-        partidasActivas = await responseActivas.json();
-        mostrarPartidasActivas();
-        
-        // Cargar partidas finalizadas
-        const responseFinalizadas = await fetch(`${API_URL}/partidas/finalizadas`);
-        partidasFinalizadas = await responseFinalizadas.json();
+        const params = new URLSearchParams({ estado: 'finalizadas', orden: 'fechaCreacion', limite: 50 });
+        if (cursorFinalizadas) {
+            params.set('cursor', cursorFinalizadas);
+        }
+        const response = await fetch(`${API_URL}/partidas/pagina?${params}`);
+        const pagina = await response.json();
+        // sincronizarCambios() puede haber añadido ya alguna partida de esta página
+        const cargadas = new Set(partidasFinalizadas.map(p => p.id));
+        partidasFinalizadas = partidasFinalizadas.concat(pagina.items.filter(p => !cargadas.has(p.id)));
+        cursorFinalizadas = pagina.siguienteCursor;
         mostrarPartidasFinalizadas();
-        
+        document.getElementById('btn-mas-finalizadas').style.display = pagina.hayMas ? 'inline-block' : 'none';
     } catch (error) {
-        console.error('Error al cargar partidas:', error);
+        console.error('Error al cargar partidas finalizadas:', error);
         mostrarMensaje('Error al cargar partidas', 'error');
     }
 }
@@ -388,20 +456,16 @@ function mostrarPartidasActivas() {
     }
     
     tbody.innerHTML = partidasActivas.map(partida => {
-        const tieneCorreosFallidos = partida.asignaciones && Object.keys(partida.asignaciones).length > 0;
-        
         return `
             <tr>
                 <td>${partida.id}</td>
                 <td><strong>${partida.nom}</strong></td>
-                <td>${partida.personas.length} jugadores</td>
+                <td>${partida.numJugadores} jugadores</td>
                 <td>${formatearFecha(partida.fechaCreacion)}</td>
                 <td>
-                    ${tieneCorreosFallidos ? `
-                        <button class="btn-action btn-reenviar" onclick="mostrarCorreosFallidos(${partida.id})">
-                            📧 Reenviar (${Object.keys(partida.asignaciones).length})
-                        </button>
-                    ` : ''}
+                    <button class="btn-action btn-reenviar" onclick="mostrarCorreosFallidos(${partida.id})">
+                        📧 Reenviar
+                    </button>
                     <button class="btn-action btn-finish" onclick="abrirModalFinalizar(${partida.id})">
                         🏆 Finalizar
                     </button>
@@ -423,7 +487,7 @@ function mostrarPartidasFinalizadas() {
         <tr>
             <td>${partida.id}</td>
             <td>${partida.nom}</td>
-            <td><strong>${partida.ganador ? partida.ganador.nom : 'N/A'}</strong></td>
+            <td><strong>${partida.ganadorNom || 'N/A'}</strong></td>
             <td>${formatearFecha(partida.fechaFinalizacion)}</td>
         </tr>
     `).join('');
@@ -493,7 +557,7 @@ async function crearPartida(event) {
         // Mostrar modal de carga
         mostrarModalCargaCorreos();
         
-        const response = await fetch(`${API_URL}/partidas`, {
+        const response = await fetch(`${API_URL}/partidas?idioma=${getCurrentLanguage()}`, {
             method: 'POST',
             headers: {
                 'Content-Type': 'application/json'
@@ -507,7 +571,13 @@ async function crearPartida(event) {
         if (response.ok) {
             const partida = await response.json();
             document.getElementById('form-partida').reset();
-            cargarPartidas(); // Forzar recarga para obtener datos actualizados
+            sincronizarCambios(); // Solo lo que ha cambiado desde la última versión
+            
+            // Los emails ya están en la cola del servidor: solo se sigue el progreso
+            if (emailjsConfig && emailjsConfig.envioServidor) {
+                await seguirEnvioServidor(partida.id);
+                return;
+            }
             
             // Obtener asignaciones y enviar via EmailJS
             setTimeout(async () => {
@@ -546,9 +616,27 @@ async function crearPartida(event) {
     }
 }
 
-function abrirModalFinalizar(partidaId) {
-    const partida = partidasActivas.find(p => p.id === partidaId);
-    if (!partida) return;
+/**
+ * Carga el detalle de una partida (participantes y asignaciones).
+ * Los listados solo traen el resumen de cada partida.
+ */
+async function obtenerDetallePartida(partidaId) {
+    const response = await fetch(`${API_URL}/partidas/${partidaId}`);
+    if (!response.ok) {
+        throw new Error(`HTTP error! status: ${response.status}`);
+    }
+    return response.json();
+}
+
+async function abrirModalFinalizar(partidaId) {
+    let partida;
+    try {
+        partida = await obtenerDetallePartida(partidaId);
+    } catch (error) {
+        console.error('Error al cargar la partida:', error);
+        mostrarMensaje('Error al cargar la partida', 'error');
+        return;
+    }
     
     partidaSeleccionada = partida;
     
@@ -582,8 +670,7 @@ async function finalizarPartida(partidaId, ganadorId) {
         if (response.ok) {
             mostrarMensaje('Partida finalizada correctamente!', 'success');
             cerrarModal();
-            cargarPartidas(); // Forzar recarga para obtener datos actualizados
-            cargarPersonas(); // Forzar recarga para actualizar victorias
+            sincronizarCambios(); // Partida finalizada y victorias del ganador
             cargarEstadisticas();
         } else {
             const error = await response.json();
@@ -603,17 +690,19 @@ async function cargarEstadisticas() {
     try {
         const response = await fetch(`${API_URL}/partidas/estadisticas`);
         const stats = await response.json();
-        
-        document.getElementById('stat-total-partidas').textContent = stats.totalPartidas;
-        document.getElementById('stat-partidas-activas').textContent = stats.partidasActivas;
-        document.getElementById('stat-partidas-finalizadas').textContent = stats.partidasFinalizadas;
-        document.getElementById('stat-total-jugadores').textContent = stats.totalJugadores;
-        
+        mostrarEstadisticas(stats);
     } catch (error) {
         console.error('Error al cargar estadísticas:', error);
     }
 }
 
+function mostrarEstadisticas(stats) {
+    document.getElementById('stat-total-partidas').textContent = stats.totalPartidas;
+    document.getElementById('stat-partidas-activas').textContent = stats.partidasActivas;
+    document.getElementById('stat-partidas-finalizadas').textContent = stats.partidasFinalizadas;
+    document.getElementById('stat-total-jugadores').textContent = stats.totalJugadores;
+}
+
 // ========================================
 // UTILIDADES
 // ========================================
@@ -682,6 +771,45 @@ async function enviarEmailsConEmailJS(detalles) {
     }
 }
 
+/**
+ * Consulta el progreso del envío desde el servidor hasta que no quedan emails pendientes.
+ * Si se cierra la pestaña no pasa nada: el servidor sigue enviando.
+ * @param {number} partidaId - ID de la partida creada
+ */
+async function seguirEnvioServidor(partidaId) {
+    try {
+        let progreso = null;
+        for (let intento = 0; intento < 60; intento++) {
+            const response = await fetch(`${API_URL}/partidas/${partidaId}/envio`);
+            if (response.ok) {
+                progreso = await response.json();
+                if (progreso.terminado) break;
+            }
+            await new Promise(resolve => setTimeout(resolve, 2000));
+        }
+        if (!progreso) {
+            cerrarModalCargaCorreos();
+            mostrarMensaje('✅ Partida creada correctamente!', 'success');
+            return;
+        }
+        if (!progreso.terminado) {
+            cerrarModalCargaCorreos();
+            mostrarMensaje(`✅ Partida creada. Correos enviados: ${progreso.enviados}/${progreso.total} (el resto se enviará en segundo plano)`, 'success');
+            return;
+        }
+        mostrarModalResultadoEnvio({
+            partidaId: partidaId,
+            exitosos: progreso.enviados,
+            fallidos: progreso.fallidos,
+            total: progreso.total,
+            detalles: progreso.detallesFallidos.map(d => ({ ...d, exitoso: false }))
+        });
+    } catch (e) {
+        cerrarModalCargaCorreos();
+        mostrarMensaje('✅ Partida creada correctamente!', 'success');
+    }
+}
+
 async function enviarCorreosPartida(partidaId) {
     try {
         mostrarMensaje('Obteniendo asignaciones...', 'info');
@@ -832,8 +960,8 @@ window.onclick = function(event) {
  */
 async function mostrarCorreosFallidos(partidaId) {
     try {
-        const partida = partidasActivas.find(p => p.id === partidaId);
-        if (!partida || !partida.asignaciones) {
+        const partida = await obtenerDetallePartida(partidaId);
+        if (!partida.asignaciones || Object.keys(partida.asignaciones).length === 0) {
             mostrarMensaje('No hay correos pendientes', 'info');
             return;
         }
@@ -877,8 +1005,13 @@ async function reenviarCorreo(partidaId, email, nombre) {
     }
     
     // Obtener nombre de la víctima desde las asignaciones de la partida
-    const partida = partidasActivas.find(p => p.id === partidaId);
-    const victimaNombre = partida?.asignaciones?.[email];
+    let victimaNombre = null;
+    try {
+        const partida = await obtenerDetallePartida(partidaId);
+        victimaNombre = partida.asignaciones?.[email];
+    } catch (error) {
+        console.error('Error al cargar la partida:', error);
+    }
     
     if (!victimaNombre) {
         mostrarMensaje('❌ No se encontró la asignación para este jugador', 'error');
@@ -893,7 +1026,7 @@ async function reenviarCorreo(partidaId, email, nombre) {
             target_name: victimaNombre
         });
         mostrarMensaje(`✅ Correo reenviado correctamente a ${nombre}`, 'success');
-        await cargarPartidas();
+        await sincronizarCambios();
         cerrarModalEnvio();
     } catch (err) {
         console.error('EmailJS reenvio error:', err);
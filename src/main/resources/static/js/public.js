@@ -1,9 +1,13 @@
 const API_URL = '/api';
 
-// Cargar datos al inicio
-document.addEventListener('DOMContentLoaded', () => {
-    cargarRanking();
-    cargarPartidasActivas();
+// Estado que se mantiene al día con los eventos del servidor
+let rankingActual = [];
+let partidasActivas = [];
+
+// Cargar datos al inicio y escuchar los cambios en directo
+document.addEventListener('DOMContentLoaded', async () => {
+    await Promise.all([cargarRanking(), cargarPartidasActivas(), cargarEstadisticas()]);
+    conectarEventos();
 });
 
 // Tabs
@@ -27,8 +31,8 @@ function showTab(tabName, event) {
 async function cargarRanking() {
     try {
         const response = await fetch(`${API_URL}/personas/ranking`);
-        const ranking = await response.json();
-        mostrarRanking(ranking);
+        rankingActual = await response.json();
+        mostrarRanking(rankingActual);
     } catch (error) {
         console.error('Error al cargar ranking:', error);
     }
@@ -79,42 +83,85 @@ function escapeHtml(text) {
 async function cargarPartidasActivas() {
     try {
         const response = await fetch(`${API_URL}/partidas/activas`);
-        const partidas = await response.json();
-        
-        const tbody = document.querySelector('#tabla-partidas-activas tbody');
-        
-        if (partidas.length === 0) {
-            tbody.innerHTML = '<tr><td colspan="4">No hay partidas activas</td></tr>';
-            return;
-        }
-        
-        tbody.innerHTML = partidas.map(p => `
-            <tr>
-                <td>${p.nom}</td>
-                <td>${p.personas ? p.personas.length : 0}</td>
-            </tr>
-        `).join('');
+        partidasActivas = await response.json();
+        mostrarPartidasActivas();
     } catch (error) {
         console.error('Error cargando partidas:', error);
     }
 }
 
+function mostrarPartidasActivas() {
+    const tbody = document.querySelector('#tabla-partidas-activas tbody');
+    
+    if (partidasActivas.length === 0) {
+        tbody.innerHTML = '<tr><td colspan="4">No hay partidas activas</td></tr>';
+        return;
+    }
+    
+    tbody.innerHTML = partidasActivas.map(p => `
+        <tr>
+            <td>${escapeHtml(p.nom)}</td>
+            <td>${p.numJugadores}</td>
+        </tr>
+    `).join('');
+}
+
 // Estadísticas
 async function cargarEstadisticas() {
     try {
         const response = await fetch(`${API_URL}/partidas/estadisticas`);
         const stats = await response.json();
-        
-        document.getElementById('stat-total-partidas').textContent = stats.totalPartidas;
-        document.getElementById('stat-partidas-activas').textContent = stats.partidasActivas;
-        document.getElementById('stat-partidas-finalizadas').textContent = stats.partidasFinalizadas;
-        document.getElementById('stat-total-jugadores').textContent = stats.totalJugadores;
-        
+        mostrarEstadisticas(stats);
     } catch (error) {
         console.error('Error al cargar estadísticas:', error);
     }
 }
 
+function mostrarEstadisticas(stats) {
+    document.getElementById('stat-total-partidas').textContent = stats.totalPartidas;
+    document.getElementById('stat-partidas-activas').textContent = stats.partidasActivas;
+    document.getElementById('stat-partidas-finalizadas').textContent = stats.partidasFinalizadas;
+    document.getElementById('stat-total-jugadores').textContent = stats.totalJugadores;
+}
+
+// Cambios en directo (Server-Sent Events): cada evento trae solo lo que ha cambiado
+function conectarEventos() {
+    if (!window.EventSource) return;
+    
+    const eventos = new EventSource(`${API_URL}/eventos`);
+    
+    eventos.addEventListener('partida', (e) => {
+        const delta = JSON.parse(e.data);
+        partidasActivas = partidasActivas.filter(p => p.id !== delta.partidaId);
+        if (delta.partida && delta.partida.estat) {
+            partidasActivas.unshift(delta.partida);
+        }
+        mostrarPartidasActivas();
+        mostrarEstadisticas(delta.estadisticas);
+    });
+    
+    eventos.addEventListener('ranking', (e) => {
+        const delta = JSON.parse(e.data);
+        rankingActual = rankingActual.filter(p => p.id !== delta.personaId);
+        if (delta.jugador) {
+            rankingActual.push(delta.jugador);
+            rankingActual.sort((a, b) => b.victories - a.victories || a.id - b.id);
+        }
+        mostrarRanking(rankingActual);
+        mostrarEstadisticas(delta.estadisticas);
+    });
+    
+    // Al reconectar se recarga todo por si se perdió algún evento mientras tanto
+    eventos.addEventListener('open', () => {
+        if (eventos.conectadoAntes) {
+            cargarRanking();
+            cargarPartidasActivas();
+            cargarEstadisticas();
+        }
+        eventos.conectadoAntes = true;
+    });
+}
+
 // Login
 function showLogin() {
     document.getElementById('login-modal').style.display = 'flex';
@@ -0,0 +1,75 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Presupuesto de sentencias SQL por petición (cabecera X-Consultas-SQL de ConsultasPorPeticion).
+ *
+ * Arranca la aplicación con el perfil loadtest (H2 en memoria) y pocos datos sintéticos. El
+ * presupuesto no depende del número de filas: si una consulta se repite por jugador o por
+ * partida (N+1), la petición lo supera.
+ */
+@SpringBootTest(properties = {
+        "loadtest.personas=300",
+        "loadtest.partidas=40"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("loadtest")
+class PresupuestoConsultasTest {
+
+    /** Jugadores de la partida nueva: con un N+1 serían al menos tantas sentencias. */
+    private static final int JUGADORES = 40;
+
+    /** Hoy: 7 sentencias al crear la partida y 6 en el dashboard. */
+    private static final int PRESUPUESTO = 10;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void crearPartidaCargaLosJugadoresEnUnaConsulta() throws Exception {
+        StringBuilder personas = new StringBuilder();
+        for (int id = 1; id <= JUGADORES; id++) {
+            personas.append(id > 1 ? "," : "").append("{\"id\":").append(id).append('}');
+        }
+        MvcResult resultado = mockMvc.perform(post("/api/partidas")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nom\":\"Presupuesto\",\"personas\":[" + personas + "]}"))
+                .andExpect(status().isCreated())
+                .andReturn();
+
+        comprobarPresupuesto(resultado);
+    }
+
+    @Test
+    void dashboardDentroDelPresupuesto() throws Exception {
+        MvcResult resultado = mockMvc.perform(get("/api/dashboard"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        comprobarPresupuesto(resultado);
+    }
+
+    private static void comprobarPresupuesto(MvcResult resultado) {
+        String sentencias = resultado.getResponse().getHeader("X-Consultas-SQL");
+        assertNotNull(sentencias, "Falta la cabecera X-Consultas-SQL");
+        assertTrue(Integer.parseInt(sentencias) <= PRESUPUESTO,
+                "Sentencias SQL: " + sentencias + " (presupuesto " + PRESUPUESTO + ")");
+        assertNull(resultado.getResponse().getHeader("X-Consultas-Repetidas"),
+                "Consulta repetida en la petición (¿N+1?)");
+    }
+}